@@ -0,0 +1,85 @@
+package desempenho;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuscaBenchmark {
+
+	/*
+	 * Benchmarks da busca do prototipo mais proximo, feita para cada tupla em toda epoca e em toda validacao.
+	 * Dependem apenas da quantidade de prototipos (N por classe, como em Inicializa), e nao do tamanho da base.
+	 *
+	 *   menorDistancia:      prototipo mais proximo de uma tupla, entre os N*10 (OperacaoVetores.menorDistancia)
+	 *   distanciaEuclidiana: distancia entre uma tupla e um prototipo (OperacaoVetores.distanciaEuclidiana)
+	 *
+	 * As tuplas sao percorridas em sequencia, uma por chamada, como no treinamento.
+	 */
+
+	private static final MethodHandle NOVO_INICIALIZA = Motor.construtor("Inicializa", String.class, String.class, int.class, String.class);
+	private static final MethodHandle DADOS_ENTRADA = Motor.campo("Inicializa", "dadosEntrada");
+	private static final MethodHandle VETORES_DE_PESOS = Motor.campo("Inicializa", "vetoresDePesos");
+	private static final MethodHandle NOVA_OPERACAO = Motor.construtor("OperacaoVetores");
+	private static final MethodHandle MENOR_DISTANCIA = Motor.metodo("OperacaoVetores", "menorDistancia", double[].class, double[][].class);
+	private static final MethodHandle DISTANCIA_EUCLIDIANA = Motor.metodo("OperacaoVetores", "distanciaEuclidiana", double[].class, double[].class);
+
+	// neuronios por classe
+	@Param({"1", "5", "10", "20"})
+	int neuronios;
+
+	// caminho relativo ao diretorio LVQ, de onde os benchmarks sao executados
+	@Param("../dados/dados.csv")
+	String arquivo;
+
+	private Object operacao;
+	private double[][] dados, prototipos;
+	private int linha, prototipo;
+
+	@Setup(Level.Trial)
+	public void prepara() throws Throwable {
+		// pesos aleatorios: ao contrario de "primeiraEntrada", funcionam com qualquer base e qualquer N
+		Object inicializa = NOVO_INICIALIZA.invokeExact(arquivo, arquivo, neuronios, "aleatoria");
+		dados = (double[][]) DADOS_ENTRADA.invokeExact(inicializa);
+		prototipos = (double[][]) VETORES_DE_PESOS.invokeExact(inicializa);
+		operacao = NOVA_OPERACAO.invokeExact();
+	}
+
+	// proxima tupla, voltando a primeira depois da ultima
+	private double[] proximaTupla(){
+		double[] tupla = dados[linha];
+		linha = (linha + 1 == dados.length) ? 0 : linha + 1;
+		return tupla;
+	}
+
+
+	@Benchmark
+	public int menorDistancia() throws Throwable {
+		return (int) MENOR_DISTANCIA.invokeExact(operacao, proximaTupla(), prototipos);
+	}
+
+	@Benchmark
+	public double distanciaEuclidiana() throws Throwable {
+		double[] vetor = prototipos[prototipo];
+		prototipo = (prototipo + 1 == prototipos.length) ? 0 : prototipo + 1;
+		return (double) DISTANCIA_EUCLIDIANA.invokeExact(operacao, proximaTupla(), vetor);
+	}
+
+}
@@ -0,0 +1,78 @@
+package desempenho;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LVQBenchmark {
+
+	/*
+	 * Benchmarks das operacoes da LVQ que percorrem a base inteira, para cada combinacao de neuronios por classe
+	 * (N, como em Inicializa) e tamanho da base (dados_teste10/100/1000 e a base completa).
+	 * A mesma base e usada como treinamento e como validacao.
+	 *
+	 *   epoca:     uma epoca de treinamento sobre a base (Treinamento.Epoca)
+	 *   validacao: classificacao de toda a base de validacao, incluindo a copia da LVQ que o metodo faz (LVQ.Validacao)
+	 *   clonar:    copia completa da LVQ, com prototipos e bases, feita a cada epoca (construtor LVQ(LVQ original))
+	 */
+
+	private static final MethodHandle NOVO_INICIALIZA = Motor.construtor("Inicializa", String.class, String.class, int.class, String.class);
+	private static final MethodHandle NOVA_LVQ = Motor.construtor("LVQ", Motor.classe("Inicializa"), int.class, double.class, double.class, double.class, int.class);
+	private static final MethodHandle CLONA_LVQ = Motor.construtor("LVQ", Motor.classe("LVQ"));
+	private static final MethodHandle NOVO_TREINAMENTO = Motor.construtor("Treinamento", Motor.classe("LVQ"));
+	private static final MethodHandle EPOCA = Motor.metodo("Treinamento", "Epoca");
+	private static final MethodHandle VALIDACAO = Motor.metodo("LVQ", "Validacao");
+
+	// neuronios por classe
+	@Param({"1", "5", "10", "20"})
+	int neuronios;
+
+	// caminhos relativos ao diretorio LVQ, de onde os benchmarks sao executados
+	@Param({"../dados/dados_teste10.csv", "../dados/dados_teste100.csv", "../dados/dados_teste1000.csv", "../dados/dados.csv"})
+	String arquivo;
+
+	private Object lvq, treinamento;
+
+	@Setup(Level.Trial)
+	public void prepara() throws Throwable {
+		// pesos aleatorios: ao contrario de "primeiraEntrada", funcionam com qualquer base e qualquer N
+		Object inicializa = NOVO_INICIALIZA.invokeExact(arquivo, arquivo, neuronios, "aleatoria");
+		lvq = NOVA_LVQ.invokeExact(inicializa, 1000, 0.1, 0.001, 0.0001, 10);
+		treinamento = NOVO_TREINAMENTO.invokeExact(lvq);
+	}
+
+
+	@Benchmark
+	public void epoca() throws Throwable {
+		EPOCA.invokeExact(treinamento);
+	}
+
+	@Benchmark
+	public double[] validacao() throws Throwable {
+		return (double[]) VALIDACAO.invokeExact(lvq);
+	}
+
+	@Benchmark
+	public Object clonar() throws Throwable {
+		return CLONA_LVQ.invokeExact(lvq);
+	}
+
+}
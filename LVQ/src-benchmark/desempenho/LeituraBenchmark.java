@@ -0,0 +1,50 @@
+package desempenho;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeituraBenchmark {
+
+	/*
+	 * Benchmark da leitura das bases em CSV para matriz (Input.arquivoToMatrizDouble), para cada tamanho de base.
+	 */
+
+	private static final MethodHandle NOVO_INPUT = Motor.construtor("Input");
+	private static final MethodHandle ARQUIVO_TO_MATRIZ_DOUBLE = Motor.metodo("Input", "arquivoToMatrizDouble", String.class);
+
+	// caminhos relativos ao diretorio LVQ, de onde os benchmarks sao executados
+	@Param({"../dados/dados_teste10.csv", "../dados/dados_teste100.csv", "../dados/dados_teste1000.csv", "../dados/dados.csv"})
+	String arquivo;
+
+	private Object input;
+
+	@Setup(Level.Trial)
+	public void prepara() throws Throwable {
+		input = NOVO_INPUT.invokeExact();
+	}
+
+	@Benchmark
+	public double[][] arquivoToMatrizDouble() throws Throwable {
+		return (double[][]) ARQUIVO_TO_MATRIZ_DOUBLE.invokeExact(input, arquivo);
+	}
+
+}
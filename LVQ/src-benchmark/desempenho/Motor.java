@@ -0,0 +1,84 @@
+package desempenho;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+final class Motor {
+
+	/*
+	 * Acesso as classes da LVQ a partir dos benchmarks.
+	 * O JMH nao aceita benchmarks no pacote padrao, e o Java nao permite que uma classe de um pacote com nome
+	 * use diretamente as classes do pacote padrao, onde fica todo o codigo da LVQ. Por isso, os metodos medidos
+	 * sao obtidos por reflexao uma unica vez, como MethodHandles guardados em campos static final: para o JIT,
+	 * um MethodHandle constante e uma chamada direta, que e inlined como se o metodo fosse chamado pelo nome.
+	 *
+	 * Nos tipos dos handles, as classes da LVQ viram Object e os demais tipos sao mantidos, de modo que
+	 * os benchmarks guardam as instancias da LVQ em campos Object e chamam invokeExact com os tipos declarados.
+	 */
+
+	private Motor(){
+	}
+
+	static Class<?> classe(String nome){
+		try {
+			return Class.forName(nome);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException("Classe da LVQ nao encontrada no classpath: " + nome, e);
+		}
+	}
+
+	// Handle do metodo de instancia ou estatico "nome" da classe dada
+	static MethodHandle metodo(String classe, String nome, Class<?>... parametros){
+		try {
+			Method metodo = classe(classe).getDeclaredMethod(nome, parametros);
+			metodo.setAccessible(true);
+			MethodHandle handle = MethodHandles.lookup().unreflect(metodo);
+			return handle.asType(apaga(handle.type()));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(classe + "." + nome, e);
+		}
+	}
+
+	// Handle do construtor da classe dada; para classes aninhadas nao estaticas, o primeiro parametro e a instancia externa
+	static MethodHandle construtor(String classe, Class<?>... parametros){
+		try {
+			Constructor<?> construtor = classe(classe).getDeclaredConstructor(parametros);
+			construtor.setAccessible(true);
+			MethodHandle handle = MethodHandles.lookup().unreflectConstructor(construtor);
+			return handle.asType(apaga(handle.type()));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("new " + classe, e);
+		}
+	}
+
+	// Handle de leitura do campo "nome" da classe dada
+	static MethodHandle campo(String classe, String nome){
+		try {
+			Field campo = classe(classe).getDeclaredField(nome);
+			campo.setAccessible(true);
+			MethodHandle handle = MethodHandles.lookup().unreflectGetter(campo);
+			return handle.asType(apaga(handle.type()));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(classe + "." + nome, e);
+		}
+	}
+
+	// Troca as classes da LVQ (pacote padrao) por Object; arrays, tipos primitivos e classes do JDK sao mantidos
+	private static MethodType apaga(MethodType tipo){
+		for(int i = 0; i < tipo.parameterCount(); i++)
+			if(daLVQ(tipo.parameterType(i)))
+				tipo = tipo.changeParameterType(i, Object.class);
+		if(daLVQ(tipo.returnType()))
+			tipo = tipo.changeReturnType(Object.class);
+		return tipo;
+	}
+
+	private static boolean daLVQ(Class<?> classe){
+		return !classe.isPrimitive() && !classe.isArray() && classe.getName().indexOf('.') < 0;
+	}
+
+}
@@ -3,8 +3,10 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -47,27 +49,27 @@ public class Input {
 	}
 	
 	//recebe como parametro o nome do arquivo e retorna uma amtriz de double contendo os dados do arquivo
+	//o arquivo eh lido uma unica vez pelo LeitorCSV, em vez de reabrir o arquivo para cada linha
 	public double[][] arquivoToMatrizDouble(String nomeArquivo){
-		String s = leituralinha(nomeArquivo, 0);
-		int quantidadeLinhas = tamanho(nomeArquivo)-1;
-		double[][] dados = new double[quantidadeLinhas][s.length()];
-		dados[0] = StringToDouble(s);
-		for(int i=1;i<dados.length;i++){
-			s = leituralinha(nomeArquivo, i);
-			dados[i] = StringToDouble(s);
+		return leCSV(nomeArquivo, false);
+	}
+
+	//le o arquivo pelo LeitorCSV; erros de leitura e campos que nao sao numeros sao lancados com o nome do arquivo
+	private double[][] leCSV(String nomeArquivo, boolean cabecalho){
+		try{
+			return LeitorCSV.le(nomeArquivo, cabecalho).matriz();
+		}
+		catch (IOException e){
+			throw new UncheckedIOException("Erro ao ler " + nomeArquivo + ": " + e.getMessage(), e);
+		}
+		catch (NumberFormatException e){
+			throw new NumberFormatException(nomeArquivo + ": " + e.getMessage());
 		}
-		return dados;
 	}
 	
+	//igual ao anterior, descartando a primeira linha do arquivo (cabecalho)
 	public double[][] arquivoComHeadToMatrizDouble(String nomeArquivo){
-		String s = leituralinha(nomeArquivo, 0);
-		int quantidadeLinhas = tamanho(nomeArquivo)-1;
-		double[][] dados = new double[quantidadeLinhas-1][s.length()];
-		for(int i=0;i<dados.length;i++){
-			s = leituralinha(nomeArquivo, i+1);
-			dados[i] = StringToDouble(s);
-		}
-		return dados;
+		return leCSV(nomeArquivo, true);
 	}
 	
 	
@@ -91,22 +93,9 @@ public class Input {
 	
 	//metodo para pegar os dados do arquivo e passar para uma matriz de double
 	// recebe como parametro o nome do arquivo e retorna a matriz de double com os dados do arquivo
+	// (uma linha da matriz por linha do arquivo; a ultima linha nao e mais repetida)
 	double[][] matrizDados(String nomeArquivo){
-		int tamanho = tamanho(nomeArquivo); //descobre a quantidade de linhas do arquivo
-		String linha = leituralinha(nomeArquivo, 0);// pega a primeira linha do arquivo
-		double[] ponto = StringToDouble(linha);// passa a primeira linha do arquivo para um array de double
-		double[][] matrizDados = new double[tamanho][ponto.length];//cria a matriz
-		for(int i=0;i<matrizDados.length;i++){//percorre as linhas da matriz de retorno
-			if(i!=0){ // se for diferente de 0 (pq na primeira linahe le ja fez isso antes de entrar no laco)
-				linha = leituralinha(nomeArquivo, i); //pega a string contendo a linha
-				ponto = StringToDouble(linha); //tranforma a string em um array de double
-			}
-			for(int j=0;j<matrizDados[i].length;j++){//percorre as colunas da matriz de retorno
-				matrizDados[i][j] = ponto[j];//preenche a matriz de retorno
-			}
-			
-		}
-		return matrizDados;
+		return arquivoToMatrizDouble(nomeArquivo);
 	}
 	
 	//funcao parar criar um arranjo de lista
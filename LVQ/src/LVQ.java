@@ -14,7 +14,9 @@ public class LVQ {
 	double taxaDeAprendizado; //taxa de Aprendizado
 	double reducaoAprendizado; //valor que reduz a taxa de Aprendizado
 	double valorMinimo; //valorMinimo que a taxa de aprendizado pode chegar
+	AgendaAprendizado agenda; //agenda da taxa de aprendizado; quando null, a taxa e reduzida de reducaoAprendizado a cada epoca
 	CondicaoParada parada = new CondicaoParada(); //objeto de condicao de parada
+	MetricasLVQ metricas; //metricas publicadas via JMX durante o Aprendizado (veja MetricasLVQ)
 	
 	//Construtor de inicializacao do LVQ que recebe como parametro um objeto Inicializa que inicializa os pesos e os dados de Entrada do LVQ.
 	//Alm de receber por parametros dados destinados a serem definidos pelo Usuario.
@@ -47,6 +49,7 @@ public class LVQ {
 		this.taxaDeAprendizado = original.taxaDeAprendizado; 
 		this.reducaoAprendizado = original.reducaoAprendizado; 
 		this.valorMinimo = original.valorMinimo; 
+		this.agenda = original.agenda;
 		
 	}
 	
@@ -65,27 +68,42 @@ public class LVQ {
 		this.numeroIteracoes = 1; //inicializar do contador de Epocas(iteracoes)
 		//TODO condicao do while temporaria, ainda falta verifica de parada
 		
-		while(this.testaParada()){//enquanto no houver uma condicao de parada. Continua a realizar a Epoca
-			LVQ copia = new LVQ(this);
+		//publica o andamento do aprendizado via JMX, com o nome do arquivo de log
+		this.metricas = new MetricasLVQ(this.numeroMaxPioras);
+		this.metricas.registra(nomeArquivoLog);
+		
+		//o MBean das metricas e removido mesmo que o aprendizado falhe
+		try {
+			while(this.testaParada()){//enquanto no houver uma condicao de parada. Continua a realizar a Epoca
+				long inicio = System.nanoTime();
+				LVQ copia = new LVQ(this);
+			
+				// cria objeto que executara o treino, passando o LVQ como parametro
+				Treinamento treina = new Treinamento(copia); 
 			
-			// cria objeto que executara o treino, passando o LVQ como parametro
-			Treinamento treina = new Treinamento(copia); 
+				//realiza uma epoca
+				treina.Epoca(); 
 			
-			//realiza uma epoca
-			treina.Epoca(); 
+				//atualiza valores das unidadesDeSaida para o LVQ.
+				this.vetoresDePesos = treina.lvq.vetoresDePesos.clone(); 
 			
-			//atualiza valores das unidadesDeSaida para o LVQ.
-			this.vetoresDePesos = treina.lvq.vetoresDePesos.clone(); 
+				//atualiza as metricas com a epoca que terminou e a taxa usada nela
+				this.metricas.epoca(this.numeroIteracoes, this.dadosEntrada.length, System.nanoTime() - inicio, this.taxaDeAprendizado);
 			
-			//reduz taxa de aprendizado
-			this.AtualizaAprendizado();
+				//reduz taxa de aprendizado
+				this.AtualizaAprendizado();
 			
-			//Mostra Progresso Na Tela
-			this.ProgressaoTreinamento(nomeArquivoLog);
+				//Mostra Progresso Na Tela
+				this.ProgressaoTreinamento(nomeArquivoLog);
 			
-			//incrementa numero de interacoes
-			this.numeroIteracoes++;			
+				//incrementa numero de interacoes
+				this.numeroIteracoes++;			
 
+			}
+		}
+		finally {
+			//remove as metricas publicadas
+			this.metricas.remove();
 		}
 	}
 	
@@ -99,6 +117,9 @@ public class LVQ {
 		//verifica se deve mostrar pogresso para epoca corrente.
 		if((this.numeroIteracoes % epocas)==0){ 
 			
+			//marca o inicio da avaliacao, para as metricas
+			long inicio = System.nanoTime();
+			
 			//faz validacao sobre treinamento
 			double [] validacaoSobreSi = this.ValidacaoSobreTreinamento();
 			
@@ -111,6 +132,10 @@ public class LVQ {
 			//calcula erro sobre validacao
 			double ErroSobreValidacao = CalculaTaxaErro(validacaoComum, this.dadosValidacao);
 			
+			//informa o erro de validacao para a agenda (usado pela agenda de plato)
+			if(this.agenda != null)
+				this.agenda.validacao(this.numeroIteracoes, ErroSobreValidacao);
+			
 			//printa os erros na Tela, junto do contador de Epoca
 			System.out.println("Epoca: " + this.numeroIteracoes);
 			System.out.println("Erro sobre Treinamento: "+ ErroSobreTrein);
@@ -120,6 +145,9 @@ public class LVQ {
 			//guarda uma referencia de LVQ com o melhor resultado acada um ciclo de epoca determinado
 			this.GuardaMelhorResultado();
 			
+			//atualiza as metricas com os erros e o tempo gasto nas validacoes
+			if(this.metricas != null)
+				this.metricas.avaliacao(ErroSobreTrein, ErroSobreValidacao, this.contadorPioras, System.nanoTime() - inicio);
 			
 			
 			Log log = new Log();
@@ -271,7 +299,9 @@ public class LVQ {
 		}
 		
 		//testa pelo valor minimo permitido para a taxa de aprendizado
-		if(this.valorMinimo != -1 && testa == true){
+		//durante o aquecimento de uma agenda a taxa ainda esta subindo, entao o teste so vale depois dele
+		boolean emAquecimento = this.agenda != null && this.numeroIteracoes <= this.agenda.epocasAquecimento();
+		if(this.valorMinimo != -1 && testa == true && !emAquecimento){
 			testa = testa && parada.testaValorMinimo(this.taxaDeAprendizado, this.valorMinimo);
 			
 			//caso deve ocorrer parada
@@ -325,10 +355,23 @@ public class LVQ {
 	}
 	
 	//Metodo responsavel por reduzir a taxa de aprendizado por um valor delimitado (reducaoAprendizado)
+	//ou, quando houver uma agenda, por definir a taxa da proxima epoca de acordo com ela
 	public void AtualizaAprendizado(){
+			if(this.agenda != null){
+				this.taxaDeAprendizado = this.agenda.taxa(this.numeroIteracoes + 1);
+				return;
+			}
 			this.taxaDeAprendizado= this.taxaDeAprendizado - this.reducaoAprendizado; //reduz taxa de aprendizado
 	}
 	
+	//Define a agenda da taxa de aprendizado (veja AgendaAprendizado), que substitui a reducao fixa
+	//A taxa da primeira epoca tambem passa a ser definida pela agenda
+	public void setAgenda(AgendaAprendizado agenda){
+		this.agenda = agenda;
+		if(agenda != null)
+			this.taxaDeAprendizado = agenda.taxa(1);
+	}
+	
 	//Metodo que calcula Taxa De Erro
 	//recebe como parametro array com resultados de algum teste para verificacao
 	//recebe como parametro matriz com dados que se usou para extrair resultado
@@ -0,0 +1,130 @@
+import java.lang.management.ManagementFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+//Metricas de um aprendizado da LVQ em andamento, publicadas como MBean no servidor JMX da plataforma,
+//com o nome "lvq:type=Treinamento,name=<nome do arquivo de log>". Podem ser acompanhadas ao vivo pelo JConsole
+//ou pelo VisualVM conectados ao processo, sem depender da saida do console.
+//Somente a thread do aprendizado altera os valores; os campos sao volatile para que as leituras do JMX vejam
+//sempre o valor mais recente. Os erros sao atualizados a cada ProgressaoTreinamento (a cada 20 epocas).
+public class MetricasLVQ implements MetricasLVQMBean {
+
+	static final String DOMINIO = "lvq";
+
+	private ObjectName nome;
+
+	private volatile int epocaAtual;
+	private volatile double tuplasPorSegundo;
+
+	private volatile double erroTreinamento = Double.NaN;
+	private volatile double erroValidacao = Double.NaN;
+	private volatile double melhorErroValidacao = Double.NaN;
+
+	private volatile int piorasSeguidas;
+	private final int piorasPermitidas;
+	private volatile double taxaAprendizado;
+
+	private volatile long nanosTreinamento;
+	private volatile long nanosAvaliacao;
+
+	public MetricasLVQ(int piorasPermitidas){
+		this.piorasPermitidas = piorasPermitidas;
+	}
+
+	//Publica as metricas com o nome dado; se o nome ja estiver em uso, um numero e acrescentado a ele.
+	//Se o JMX nao estiver disponivel, as metricas continuam sendo atualizadas, apenas nao sao publicadas.
+	public void registra(String nomeTreinamento){
+		try {
+			for(int i = 1; nome == null; i++){
+				ObjectName candidato = new ObjectName(DOMINIO + ":type=Treinamento,name=" + nomeTreinamento + ((i == 1) ? "" : "-" + i));
+				try {
+					ManagementFactory.getPlatformMBeanServer().registerMBean(this, candidato);
+					nome = candidato;
+				} catch (InstanceAlreadyExistsException e) {
+					//tenta o proximo numero
+				}
+			}
+		} catch (JMException e) {
+			System.err.println("Metricas da LVQ nao publicadas via JMX: " + e.getMessage());
+		}
+	}
+
+	//Remove o MBean publicado por registra()
+	public void remove(){
+		if(nome == null)
+			return;
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(nome);
+		} catch (JMException e) {
+			//ja removido
+		}
+		nome = null;
+	}
+
+	//----------ATUALIZACAO, PELA THREAD DO APRENDIZADO--------------//
+
+	void epoca(int epoca, int tuplas, long nanos, double taxaAprendizado){
+		this.epocaAtual = epoca;
+		this.tuplasPorSegundo = (nanos > 0) ? tuplas*1e9/nanos : 0;
+		this.nanosTreinamento += nanos;
+		this.taxaAprendizado = taxaAprendizado;
+	}
+
+	void avaliacao(double erroTreinamento, double erroValidacao, int piorasSeguidas, long nanos){
+		this.erroTreinamento = erroTreinamento;
+		this.erroValidacao = erroValidacao;
+		if(Double.isNaN(melhorErroValidacao) || erroValidacao < melhorErroValidacao)
+			this.melhorErroValidacao = erroValidacao;
+		this.piorasSeguidas = piorasSeguidas;
+		this.nanosAvaliacao += nanos;
+	}
+
+	//----------ATRIBUTOS DO MBEAN--------------//
+
+	public int getEpocaAtual(){
+		return epocaAtual;
+	}
+
+	public double getTuplasPorSegundo(){
+		return tuplasPorSegundo;
+	}
+
+	public double getErroTreinamento(){
+		return erroTreinamento;
+	}
+
+	public double getErroValidacao(){
+		return erroValidacao;
+	}
+
+	public double getMelhorErroValidacao(){
+		return melhorErroValidacao;
+	}
+
+	public int getPiorasSeguidas(){
+		return piorasSeguidas;
+	}
+
+	public int getPiorasPermitidas(){
+		return piorasPermitidas;
+	}
+
+	public double getTaxaAprendizado(){
+		return taxaAprendizado;
+	}
+
+	public long getTempoTreinamentoMs(){
+		return nanosTreinamento/1000000;
+	}
+
+	public long getTempoAvaliacaoMs(){
+		return nanosAvaliacao/1000000;
+	}
+
+	public long getHeapUsado(){
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+}
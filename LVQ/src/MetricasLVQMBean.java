@@ -0,0 +1,19 @@
+//Atributos publicados por MetricasLVQ via JMX (veja o comentario daquela classe)
+public interface MetricasLVQMBean {
+
+	int getEpocaAtual();
+	double getTuplasPorSegundo(); //na ultima epoca
+
+	double getErroTreinamento();
+	double getErroValidacao();
+	double getMelhorErroValidacao();
+
+	int getPiorasSeguidas();
+	int getPiorasPermitidas();
+	double getTaxaAprendizado();
+
+	long getTempoTreinamentoMs();
+	long getTempoAvaliacaoMs();
+	long getHeapUsado(); //em bytes, de toda a JVM
+
+}
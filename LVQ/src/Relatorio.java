@@ -2,6 +2,7 @@ import java.util.Scanner;
 
 //classe criada para gerar todos os arquivos necessarios ( logs ) para o relatorio
 public class Relatorio {
+	//o primeiro argumento, opcional, e a agenda da taxa de aprendizado (ex: "cosseno:200:0.001", veja AgendaAprendizado)
 	public static void main (String[] arg){
 		//MEDIDAS QUE DEFINEM A "CARA" DA LVQ - inicio//
 		Scanner sc = new Scanner(System.in);
@@ -36,11 +37,13 @@ public class Relatorio {
 		//MEDIDAS QUE DEFINEM A "CARA" DA LVQ - fim// (ex:)
 
 		
-		executaLVQ(numeroEpoca, taxaDeAprendizado, reducaoAprendizado, maxPiora, valorMinimo, nomeTreino, nomeValidacao, nomeTeste, neuronios, inicio);
+		String agenda = (arg.length > 0) ? arg[0] : null;
+		executaLVQ(numeroEpoca, taxaDeAprendizado, reducaoAprendizado, maxPiora, valorMinimo, nomeTreino, nomeValidacao, nomeTeste, neuronios, inicio, agenda);
 	}
 	
 	//funcao para executar a LVQ com os parametros dados criando os logs
-	static void executaLVQ(int numeroEpoca, double taxaDeAprendizado, double reducaoAprendizado, int maxPiora, double valorMinimo, String nomeTreino, String nomeValidacao, String nomeTeste, int neuronios, String inicio){
+	//a agenda da taxa de aprendizado substitui a reducao fixa; com null, a reducao fixa e mantida
+	static void executaLVQ(int numeroEpoca, double taxaDeAprendizado, double reducaoAprendizado, int maxPiora, double valorMinimo, String nomeTreino, String nomeValidacao, String nomeTeste, int neuronios, String inicio, String agenda){
 
 		Log log = new Log();
 		log.criaHead("log");
@@ -58,6 +61,8 @@ public class Relatorio {
 		//e dados de entrada, alem de medidas que iram definir a cara da rede (numero fixo que as iteracoes podem chegar, taxa de Aprendizado, 
 		//taxa de reducao do Aprendizado e valor minimo que a taxa de reducao pode chegar)
 		LVQ lvq1 = new LVQ(inicializa, numeroEpoca, taxaDeAprendizado, reducaoAprendizado, valorMinimo, maxPiora);
+		if(agenda != null)
+			lvq1.setAgenda(AgendaAprendizado.porNome(agenda, taxaDeAprendizado));
 		lvq1.Aprendizado("log");
 		double[] respostas = lvq1.Teste(nomeTeste);
 		MatrizConfusao confusao = new MatrizConfusao();
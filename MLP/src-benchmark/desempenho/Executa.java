@@ -0,0 +1,24 @@
+package desempenho;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class Executa {
+
+	/*
+	 * Ponto de entrada dos benchmarks. Aceita as mesmas opções da linha de comando do JMH (por exemplo,
+	 * um filtro como "RedeBenchmark.sessao", -p neuronios=15 ou -rf csv -rff resultado.csv) e sempre liga
+	 * o profiler "gc", que acrescenta a cada benchmark a taxa de alocação (gc.alloc.rate, em MB/s) e os
+	 * bytes alocados por operação (gc.alloc.rate.norm).
+	 */
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions linhaComando = new CommandLineOptions(args);
+		new Runner(new OptionsBuilder().parent(linhaComando).addProfiler(GCProfiler.class).build()).run();
+	}
+
+}
@@ -0,0 +1,78 @@
+package desempenho;
+
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeituraBenchmark {
+
+	/*
+	 * Benchmarks da leitura dos arquivos de dados optdigits.
+	 *
+	 *   csvToDouble: leitura do CSV para matriz, como no treinamento sem cache (Arquivo.csvToDouble)
+	 *   leitorCSV:   somente a interpretação do CSV, sem montar a matriz (LeitorCSV.le)
+	 *   cache:       carga do conjunto de dados pelo cache binário já gravado (CacheDados.carrega)
+	 */
+
+	private static final MethodHandle CSV_TO_DOUBLE = Motor.metodo("Arquivo", "csvToDouble", String.class);
+	private static final MethodHandle LE = Motor.metodo("LeitorCSV", "le", String.class);
+	private static final MethodHandle CARREGA = Motor.metodo("CacheDados", "carrega", String.class, String.class);
+
+	// caminho relativo ao diretório MLP, de onde os benchmarks são executados
+	@Param("../dados/holdout/treinoMinMax0.csv")
+	String arquivo;
+
+	private File diretorioCache;
+
+	@Setup(Level.Trial)
+	public void prepara() throws Throwable {
+		// um cache próprio, gravado aqui, para que a medida não dependa do cache deixado por outras execuções
+		diretorioCache = Files.createTempDirectory("mlp-cache-benchmark").toFile();
+		CARREGA.invoke(arquivo, diretorioCache.getPath());
+	}
+
+	@TearDown(Level.Trial)
+	public void encerra(){
+		for(File arquivoCache : diretorioCache.listFiles())
+			arquivoCache.delete();
+		diretorioCache.delete();
+	}
+
+
+	@Benchmark
+	public double[][] csvToDouble() throws Throwable {
+		return (double[][]) CSV_TO_DOUBLE.invokeExact(arquivo);
+	}
+
+	@Benchmark
+	public Object leitorCSV() throws Throwable {
+		return LE.invokeExact(arquivo);
+	}
+
+	@Benchmark
+	public Object cache() throws Throwable {
+		return CARREGA.invokeExact(arquivo, diretorioCache.getPath());
+	}
+
+}
@@ -0,0 +1,84 @@
+package desempenho;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+final class Motor {
+
+	/*
+	 * Acesso às classes da rede a partir dos benchmarks.
+	 * O JMH não aceita benchmarks no pacote padrão, e o Java não permite que uma classe de um pacote com nome
+	 * use diretamente as classes do pacote padrão, onde fica todo o código da rede. Por isso, os métodos medidos
+	 * são obtidos por reflexão uma única vez, como MethodHandles guardados em campos static final: para o JIT,
+	 * um MethodHandle constante é uma chamada direta, que é inlined como se o método fosse chamado pelo nome.
+	 *
+	 * Nos tipos dos handles, as classes da rede viram Object e os demais tipos são mantidos, de modo que
+	 * os benchmarks guardam as instâncias da rede em campos Object e chamam invokeExact com os tipos declarados.
+	 */
+
+	private Motor(){
+	}
+
+	static Class<?> classe(String nome){
+		try {
+			return Class.forName(nome);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException("Classe da rede não encontrada no classpath: " + nome, e);
+		}
+	}
+
+	// Handle do método de instância ou estático "nome" da classe dada
+	static MethodHandle metodo(String classe, String nome, Class<?>... parametros){
+		try {
+			Method metodo = classe(classe).getDeclaredMethod(nome, parametros);
+			metodo.setAccessible(true);
+			MethodHandle handle = MethodHandles.lookup().unreflect(metodo);
+			return handle.asType(apaga(handle.type()));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(classe + "." + nome, e);
+		}
+	}
+
+	// Handle do construtor da classe dada; para classes aninhadas não estáticas, o primeiro parâmetro é a instância externa
+	static MethodHandle construtor(String classe, Class<?>... parametros){
+		try {
+			Constructor<?> construtor = classe(classe).getDeclaredConstructor(parametros);
+			construtor.setAccessible(true);
+			MethodHandle handle = MethodHandles.lookup().unreflectConstructor(construtor);
+			return handle.asType(apaga(handle.type()));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("new " + classe, e);
+		}
+	}
+
+	// Handle de leitura do campo "nome" da classe dada
+	static MethodHandle campo(String classe, String nome){
+		try {
+			Field campo = classe(classe).getDeclaredField(nome);
+			campo.setAccessible(true);
+			MethodHandle handle = MethodHandles.lookup().unreflectGetter(campo);
+			return handle.asType(apaga(handle.type()));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(classe + "." + nome, e);
+		}
+	}
+
+	// Troca as classes da rede (pacote padrão) por Object; arrays, tipos primitivos e classes do JDK são mantidos
+	private static MethodType apaga(MethodType tipo){
+		for(int i = 0; i < tipo.parameterCount(); i++)
+			if(daRede(tipo.parameterType(i)))
+				tipo = tipo.changeParameterType(i, Object.class);
+		if(daRede(tipo.returnType()))
+			tipo = tipo.changeReturnType(Object.class);
+		return tipo;
+	}
+
+	private static boolean daRede(Class<?> classe){
+		return !classe.isPrimitive() && !classe.isArray() && classe.getName().indexOf('.') < 0;
+	}
+
+}
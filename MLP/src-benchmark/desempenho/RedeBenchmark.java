@@ -0,0 +1,170 @@
+package desempenho;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedeBenchmark {
+
+	/*
+	 * Benchmarks dos caminhos mais executados da rede MLP, sobre os dados optdigits normalizados (holdout MinMax).
+	 * Cada medida é repetida para os tamanhos de camada escondida usados nos experimentos de logs_brutos.
+	 *
+	 *   feedForward: camada escondida sobre uma tupla (Camada.feedForward)
+	 *   sessao:      feedforward e backpropagation de uma tupla, corrigindo os pesos (Rede.Treinamento.sessao)
+	 *   executar:    classificação de uma tupla (Rede.executar)
+	 *   clonar:      cópia completa da rede, feita a cada melhora em validação (Rede.clonar)
+	 *   avalia:      taxa de erros e erro quadrado sobre a validação, em uma thread (Avaliacao.avalia)
+	 *   epoca:       uma época completa sobre o conjunto de treinamento (Rede.Treinamento.epoca)
+	 *
+	 * feedForwardEscalar/feedForwardSIMD e sessaoEscalar/sessaoSIMD repetem feedForward e sessao em JVMs próprias,
+	 * uma com -Dmlp.vetores=escalar e outra com -Dmlp.vetores=simd e o módulo jdk.incubator.vector, para comparar
+	 * as duas implementações de OperacaoVetores. As versões SIMD exigem a pasta src-vetorial compilada junto com
+	 * a rede (veja o README); sem ela, falham na inicialização em vez de medir a versão escalar.
+	 *
+	 * As operações por tupla percorrem as tuplas em sequência, uma por chamada, como no treinamento.
+	 * A taxa de alocação é medida pelo profiler "gc" do JMH, que Executa sempre liga (veja o README).
+	 * sessao é a verificação de que o passo de treinamento por tupla não aloca memória: ele usa somente o
+	 * EspacoTrabalho criado uma vez por treinamento, e seu gc.alloc.rate.norm deve ficar em ~0 B/op, como o de
+	 * feedForward e executar. Qualquer valor acima disso indica uma alocação nova no caminho por tupla.
+	 */
+
+	private static final MethodHandle CONVERTE_TUPLA = Motor.metodo("Main", "converteTupla", double[][].class);
+	private static final MethodHandle CSV_TO_DOUBLE = Motor.metodo("Arquivo", "csvToDouble", String.class);
+	private static final MethodHandle LINHAS = Motor.metodo("ConjuntoDados", "linhas");
+	private static final MethodHandle INICIO = Motor.metodo("ConjuntoDados", "inicio", int.class);
+	private static final MethodHandle VALORES = Motor.metodo("ConjuntoDados", "valores");
+	private static final MethodHandle COLUNAS = Motor.metodo("ConjuntoDados", "colunas");
+
+	private static final MethodHandle NOVA_REDE = Motor.construtor("Rede", int.class, int.class, int.class, boolean.class, Random.class);
+	private static final MethodHandle NOVO_TREINAMENTO = Motor.construtor("Rede$Treinamento", Motor.classe("Rede"),
+			Motor.classe("ConjuntoDados"), Motor.classe("ConjuntoDados"), Motor.classe("ConjuntoDados"), double.class);
+	private static final MethodHandle NOVO_ESPACO = Motor.construtor("EspacoTrabalho", Motor.classe("Rede"));
+	private static final MethodHandle CAMADA_ESCONDIDA = Motor.campo("Rede", "camadaEscondida");
+
+	private static final MethodHandle FEED_FORWARD = Motor.metodo("Camada", "feedForward", double[].class, int.class, double[].class);
+	private static final MethodHandle SESSAO = Motor.metodo("Rede$Treinamento", "sessao", int.class, Motor.classe("EspacoTrabalho"));
+	private static final MethodHandle EXECUTAR = Motor.metodo("Rede", "executar", Motor.classe("ConjuntoDados"), int.class);
+	private static final MethodHandle CLONAR = Motor.metodo("Rede", "clonar");
+	private static final MethodHandle AVALIA = Motor.metodo("Avaliacao", "avalia", Motor.classe("Rede"), Motor.classe("ConjuntoDados"), int.class, int.class);
+	private static final MethodHandle EPOCA = Motor.metodo("Rede$Treinamento", "epoca");
+
+	// os tamanhos de camada escondida dos experimentos
+	@Param({"2", "10", "15", "20"})
+	int neuronios;
+
+	// caminhos relativos ao diretório MLP, de onde os benchmarks são executados
+	@Param("../dados/holdout/treinoMinMax0.csv")
+	String treino;
+
+	@Param("../dados/holdout/validacaoMinMax0.csv")
+	String validacao;
+
+	private Object dadosTreino, dadosValidacao;
+	private Object rede, treinamento, espaco, camada;
+	private double[] valores, saida;
+	private int linhas, linhasValidacao, linha;
+
+	@Setup(Level.Trial)
+	public void prepara() throws Throwable {
+		dadosTreino = carrega(treino);
+		dadosValidacao = carrega(validacao);
+		valores = (double[]) VALORES.invokeExact(dadosTreino);
+		linhas = (int) LINHAS.invokeExact(dadosTreino);
+		linhasValidacao = (int) LINHAS.invokeExact(dadosValidacao);
+
+		// a mesma semente em todas as execuções, para que as medidas sejam comparáveis entre versões
+		rede = NOVA_REDE.invokeExact((int) COLUNAS.invokeExact(dadosTreino), neuronios, 10, true, new Random(1));
+		treinamento = NOVO_TREINAMENTO.invokeExact(rede, dadosTreino, dadosValidacao, dadosValidacao, 0.01);
+		espaco = NOVO_ESPACO.invokeExact(rede);
+		camada = CAMADA_ESCONDIDA.invokeExact(rede);
+		saida = new double[neuronios];
+	}
+
+	static Object carrega(String caminho) throws Throwable {
+		return CONVERTE_TUPLA.invokeExact((double[][]) CSV_TO_DOUBLE.invokeExact(caminho));
+	}
+
+	// próxima tupla de treinamento, voltando à primeira depois da última
+	private int proximaLinha(){
+		int atual = linha;
+		linha = (atual + 1 == linhas) ? 0 : atual + 1;
+		return atual;
+	}
+
+
+	@Benchmark
+	public double[] feedForward() throws Throwable {
+		FEED_FORWARD.invokeExact(camada, valores, (int) INICIO.invokeExact(dadosTreino, proximaLinha()), saida);
+		return saida;
+	}
+
+	@Benchmark
+	public void sessao() throws Throwable {
+		SESSAO.invokeExact(treinamento, proximaLinha(), espaco);
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = "-Dmlp.vetores=escalar")
+	public double[] feedForwardEscalar() throws Throwable {
+		return feedForward();
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Dmlp.vetores=simd"})
+	public double[] feedForwardSIMD() throws Throwable {
+		return feedForward();
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = "-Dmlp.vetores=escalar")
+	public void sessaoEscalar() throws Throwable {
+		sessao();
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Dmlp.vetores=simd"})
+	public void sessaoSIMD() throws Throwable {
+		sessao();
+	}
+
+	@Benchmark
+	public int executar() throws Throwable {
+		return (int) EXECUTAR.invokeExact(rede, dadosTreino, proximaLinha());
+	}
+
+	@Benchmark
+	public Object clonar() throws Throwable {
+		return CLONAR.invokeExact(rede);
+	}
+
+	@Benchmark
+	public Object avalia() throws Throwable {
+		return AVALIA.invokeExact(rede, dadosValidacao, 0, linhasValidacao);
+	}
+
+	@Benchmark
+	public void epoca() throws Throwable {
+		EPOCA.invokeExact(treinamento);
+	}
+
+}
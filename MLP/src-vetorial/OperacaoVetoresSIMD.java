@@ -0,0 +1,101 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+public class OperacaoVetoresSIMD extends OperacaoVetores {
+
+	/*
+	 * Implementação de OperacaoVetores com a Vector API (jdk.incubator.vector, Java 16 ou mais recente).
+	 * Cada instrução processa tantos doubles quanto couberem no maior registrador vetorial da máquina;
+	 * os elementos que sobram no fim de cada vetor são tratados um a um.
+	 * Esta classe só é compilada e carregada quando o módulo está disponível (veja OperacaoVetores).
+	 */
+
+	private static final VectorSpecies<Double> ESPECIE = DoubleVector.SPECIES_PREFERRED;
+
+	public String nome(){
+		return "SIMD (" + ESPECIE.length() + " doubles por vetor)";
+	}
+
+	// Os produtos são acumulados em paralelo, um acumulador por posição do vetor, e somados ao final
+	public double produtoEscalar(double[] a, int ia, double[] b, int ib, int n){
+		DoubleVector acumulado = DoubleVector.zero(ESPECIE);
+		int i = 0;
+		int limite = ESPECIE.loopBound(n);
+
+		for(; i < limite; i += ESPECIE.length()){
+			DoubleVector va = DoubleVector.fromArray(ESPECIE, a, ia + i);
+			DoubleVector vb = DoubleVector.fromArray(ESPECIE, b, ib + i);
+			acumulado = va.fma(vb, acumulado);
+		}
+
+		double soma = acumulado.reduceLanes(VectorOperators.ADD);
+		for(; i < n; i++)
+			soma += a[ia + i]*b[ib + i];
+		return soma;
+	}
+
+	// Como na versão escalar, as linhas de "a" são processadas de quatro em quatro,
+	// de modo que cada vetor de pesos lido de "b" é usado por quatro linhas
+	public void produtoMatriz(double[] a, int linhas, int n, double[] b, int colunas, double[] c){
+
+		int limite = ESPECIE.loopBound(n);
+		int r = 0;
+		for(; r + 4 <= linhas; r += 4){
+			int a0 = r*n, a1 = a0 + n, a2 = a1 + n, a3 = a2 + n;
+			int c0 = r*colunas, c1 = c0 + colunas, c2 = c1 + colunas, c3 = c2 + colunas;
+			int base = 0;
+
+			for(int j = 0; j < colunas; j++){
+				DoubleVector s0 = DoubleVector.zero(ESPECIE), s1 = s0, s2 = s0, s3 = s0;
+				int i = 0;
+				for(; i < limite; i += ESPECIE.length()){
+					DoubleVector w = DoubleVector.fromArray(ESPECIE, b, base + i);
+					s0 = DoubleVector.fromArray(ESPECIE, a, a0 + i).fma(w, s0);
+					s1 = DoubleVector.fromArray(ESPECIE, a, a1 + i).fma(w, s1);
+					s2 = DoubleVector.fromArray(ESPECIE, a, a2 + i).fma(w, s2);
+					s3 = DoubleVector.fromArray(ESPECIE, a, a3 + i).fma(w, s3);
+				}
+
+				double soma0 = s0.reduceLanes(VectorOperators.ADD);
+				double soma1 = s1.reduceLanes(VectorOperators.ADD);
+				double soma2 = s2.reduceLanes(VectorOperators.ADD);
+				double soma3 = s3.reduceLanes(VectorOperators.ADD);
+				for(; i < n; i++){
+					double w = b[base + i];
+					soma0 += a[a0 + i]*w;
+					soma1 += a[a1 + i]*w;
+					soma2 += a[a2 + i]*w;
+					soma3 += a[a3 + i]*w;
+				}
+
+				c[c0 + j] = soma0;
+				c[c1 + j] = soma1;
+				c[c2 + j] = soma2;
+				c[c3 + j] = soma3;
+				base += n;
+			}
+		}
+
+		// linhas restantes, uma a uma
+		for(; r < linhas; r++)
+			for(int j = 0; j < colunas; j++)
+				c[r*colunas + j] = produtoEscalar(a, r*n, b, j*n, n);
+	}
+
+	// Multiplicação e soma separadas, como na versão escalar, para que cada elemento tenha exatamente o mesmo arredondamento
+	public void axpy(double alfa, double[] x, int ix, double[] y, int iy, int n){
+		int i = 0;
+		int limite = ESPECIE.loopBound(n);
+
+		for(; i < limite; i += ESPECIE.length()){
+			DoubleVector vx = DoubleVector.fromArray(ESPECIE, x, ix + i);
+			DoubleVector vy = DoubleVector.fromArray(ESPECIE, y, iy + i);
+			vx.mul(alfa).add(vy).intoArray(y, iy + i);
+		}
+
+		for(; i < n; i++)
+			y[iy + i] += alfa*x[ix + i];
+	}
+
+}
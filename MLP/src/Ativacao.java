@@ -0,0 +1,155 @@
+public enum Ativacao {
+
+	/*
+	 * Funções de ativação disponíveis para os neurônios da rede MLP, cada uma com sua derivada.
+	 * A derivada é sempre calculada a partir do valor já ativado pelo neurônio, como nas simplificações
+	 * apresentadas por Laurene Fausett no livro "Fundamentals of Neural Networks", de modo que a
+	 * backpropagation não precisa guardar a soma ponderada de cada neurônio.
+	 * Cada função também informa os sinais de treinamento (target patterns) adequados à sua faixa de saída.
+	 *
+	 * As versões "tabela" trocam o Math.exp por uma tabela pré-calculada com interpolação linear.
+	 * O erro absoluto em relação à função exata fica abaixo de ERRO_TABELA em qualquer ponto.
+	 *
+	 * O código de cada função é gravado no cabeçalho dos arquivos de ModeloBinario e não deve mudar.
+	 */
+
+	// saída entre -1 e 1
+	BIPOLAR_SIGMOIDE(0, "bipolar", 1, -1){
+		public double funcao(double entrada){
+			entrada = entrada*(-1);
+			return ((2/(1 + Math.exp(entrada))) - 1);
+		}
+		public double derivada(double f){
+			return ((1+f)*(1-f))/2;
+		}
+	},
+
+	// saída entre 0 e 1
+	BINARIA_SIGMOIDE(1, "binaria", 1, 0){
+		public double funcao(double entrada){
+			return 1/(1 + Math.exp(-entrada));
+		}
+		public double derivada(double f){
+			return f*(1-f);
+		}
+	},
+
+	// saída entre -1 e 1, com inclinação duas vezes maior que a bipolar sigmóide na origem
+	TANH(2, "tanh", 1, -1){
+		public double funcao(double entrada){
+			return Math.tanh(entrada);
+		}
+		public double derivada(double f){
+			return (1+f)*(1-f);
+		}
+	},
+
+	// saída a partir de 0, sem limite superior
+	RELU(3, "relu", 1, 0){
+		public double funcao(double entrada){
+			return (entrada > 0) ? entrada : 0;
+		}
+		public double derivada(double f){
+			return (f > 0) ? 1 : 0;
+		}
+	},
+
+	// bipolar sigmóide aproximada por tabela
+	BIPOLAR_TABELA(4, "bipolar-tabela", 1, -1){
+		public double funcao(double entrada){
+			return bipolarTabela(entrada);
+		}
+		public double derivada(double f){
+			return ((1+f)*(1-f))/2;
+		}
+	},
+
+	// binária sigmóide aproximada por tabela, a partir da bipolar: binaria(x) = (bipolar(x) + 1)/2
+	BINARIA_TABELA(5, "binaria-tabela", 1, 0){
+		public double funcao(double entrada){
+			return (bipolarTabela(entrada) + 1)/2;
+		}
+		public double derivada(double f){
+			return f*(1-f);
+		}
+	};
+
+
+	final int codigo; // identificação da função nos arquivos binários
+	final String nome; // nome usado na linha de comando
+	final double alvoPositivo; // sinal de treinamento do neurônio de saída da classe correta
+	final double alvoNegativo; // sinal de treinamento dos demais neurônios de saída
+
+	Ativacao(int codigo, String nome, double alvoPositivo, double alvoNegativo){
+		this.codigo = codigo;
+		this.nome = nome;
+		this.alvoPositivo = alvoPositivo;
+		this.alvoNegativo = alvoNegativo;
+	}
+
+	// Recebe o valor de entrada dado ao neurônio e retorna o valor de saída
+	public abstract double funcao(double entrada);
+
+	// Derivada da função, calculada a partir do valor já ativado pelo neurônio
+	public abstract double derivada(double f);
+
+	// Sinal de treinamento de um neurônio de saída, conforme ele corresponda ou não à classe da tupla
+	public double alvo(boolean classeCorreta){
+		return classeCorreta ? alvoPositivo : alvoNegativo;
+	}
+
+	// Retorna a função com o nome dado na linha de comando
+	public static Ativacao porNome(String nome){
+		for(Ativacao a : values())
+			if(a.nome.equals(nome))
+				return a;
+		throw new IllegalArgumentException("Função de ativação desconhecida: " + nome);
+	}
+
+	// Retorna a função com o código dado, lido de um arquivo binário
+	public static Ativacao porCodigo(int codigo){
+		for(Ativacao a : values())
+			if(a.codigo == codigo)
+				return a;
+		throw new IllegalArgumentException("Código de função de ativação desconhecido: " + codigo);
+	}
+
+
+	//************* Aproximação por tabela *********************//
+
+	/*
+	 * A bipolar sigmóide é igual a tanh(x/2): é ímpar e chega a 1 - 2.3e-7 em x = 16.
+	 * A tabela guarda seus valores em [0, LIMITE_TABELA], com PASSOS_POR_UNIDADE pontos por unidade;
+	 * valores negativos usam a simetria f(-x) = -f(x) e valores além do limite retornam ±1.
+	 * Com interpolação linear, o erro é no máximo h²/8 · max|f''| = (1/128)²/8 · 0.193 ≈ 1.5e-6,
+	 * e o corte em ±16 acrescenta no máximo 2.3e-7.
+	 */
+
+	static final double ERRO_TABELA = 2e-6;
+
+	private static final int PASSOS_POR_UNIDADE = 128;
+	private static final double LIMITE_TABELA = 16;
+	private static final double[] TABELA = criaTabela();
+
+	private static double[] criaTabela(){
+		int tamanho = (int)(LIMITE_TABELA*PASSOS_POR_UNIDADE) + 2;
+		double[] tabela = new double[tamanho];
+		for(int i = 0; i < tamanho; i++)
+			tabela[i] = Math.tanh(((double)i/PASSOS_POR_UNIDADE)/2);
+		return tabela;
+	}
+
+	static double bipolarTabela(double x){
+		double ax = Math.abs(x);
+		if(ax >= LIMITE_TABELA)
+			return (x > 0) ? 1 : -1;
+
+		double posicao = ax*PASSOS_POR_UNIDADE;
+		int i = (int)posicao;
+		double fracao = posicao - i;
+		double y = TABELA[i] + fracao*(TABELA[i + 1] - TABELA[i]);
+
+		return (x < 0) ? -y : y;
+	}
+
+}
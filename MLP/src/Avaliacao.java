@@ -0,0 +1,141 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class Avaliacao {
+
+	/*
+	 * Esta classe guarda o desempenho de uma rede MLP sobre um conjunto de dados:
+	 * a quantidade de erros, o erro quadrado e a matriz de confusão.
+	 * Os três resultados são obtidos juntos, com um único feedForward por tupla.
+	 * Tuplas de classe desconhecida (-1, ou qualquer valor fora das classes da rede) não podem ser
+	 * avaliadas: são apenas contadas em "desconhecidas", sem entrar nos erros, no erro quadrado nem na matriz.
+	 * Conjuntos grandes são divididos em fatias avaliadas em paralelo, cada uma com seu próprio acumulador,
+	 * e os acumuladores são somados ao final.
+	 */
+
+	int tentativas; // quantidade de tuplas avaliadas
+	int erros; // quantidade de tuplas classificadas incorretamente
+	double erroQuad; // soma, para todas as tuplas, do erro quadrado da camada de saída
+	int desconhecidas; // quantidade de tuplas ignoradas por não terem classe conhecida
+
+	// As linhas da matriz representam a realidade, enquanto as colunas mostram as respostas da rede.
+	int[][] matriz;
+
+	// fatias com menos tuplas do que isso são avaliadas sem nova divisão
+	private static final int FATIA_MINIMA = 256;
+
+
+	public Avaliacao(int classes){
+		this.matriz = new int[classes][classes];
+	}
+
+	// retorna a taxa de erros (acurácia) alcançada
+	public double taxaErros(){
+		return (double)erros/tentativas;
+	}
+
+	// retorna o erro quadrado somado de todas as tuplas
+	public double erroQuadrado(){
+		return erroQuad;
+	}
+
+	public int[][] matrizConfusao(){
+		return matriz;
+	}
+
+	// acumula nesta avaliação o resultado de outra avaliação
+	public void soma(Avaliacao outra){
+		this.tentativas += outra.tentativas;
+		this.erros += outra.erros;
+		this.erroQuad += outra.erroQuad;
+		this.desconhecidas += outra.desconhecidas;
+
+		for(int i = 0; i < matriz.length; i++)
+			for(int j = 0; j < matriz[i].length; j++)
+				this.matriz[i][j] += outra.matriz[i][j];
+	}
+
+
+	//************* Execução da avaliação *********************//
+
+	// Avalia a rede dada sobre todas as tuplas, dividindo o trabalho entre os núcleos disponíveis
+	public static Avaliacao avalia(Rede mlp, ConjuntoDados dados){
+		return ForkJoinPool.commonPool().invoke(new Fatia(mlp, dados, 0, dados.linhas()));
+	}
+
+	// Avalia sequencialmente as tuplas [inicio, fim), com arrays auxiliares próprios.
+	// A rede não é alterada, portanto várias fatias podem ser avaliadas ao mesmo tempo.
+	static Avaliacao avalia(Rede mlp, ConjuntoDados dados, int inicio, int fim){
+
+		Avaliacao av = new Avaliacao(mlp.camadaSaida.neuronios);
+		double[] z = new double[mlp.camadaEscondida.neuronios];
+		double[] y = new double[mlp.camadaSaida.neuronios];
+		double tk;
+		double erro;
+
+		for(int i = inicio; i < fim; i++){
+
+			int classe = dados.classe(i);
+			if(classe < 0 || classe >= y.length){
+				av.desconhecidas++;
+				continue;
+			}
+
+			// um único feedForward por tupla
+			mlp.camadaEscondida.feedForward(dados.valores(), dados.inicio(i), z);
+			mlp.camadaSaida.feedForward(z, y);
+
+			int resposta = Rede.decide(y);
+
+			av.tentativas++;
+			if(resposta != classe)
+				av.erros++;
+			av.matriz[classe][resposta]++;
+
+			// o target pattern de cada neurônio de saída é derivado da classe da tupla, como no treinamento
+			double temp = 0;
+			for(int k = 0; k < y.length; k++){
+				tk = mlp.camadaSaida.funcao.alvo(k == classe);
+				erro = tk - y[k];
+				temp += erro*erro;
+			}
+			av.erroQuad += temp;
+		}
+
+		return av;
+	}
+
+	// Tarefa que divide um intervalo de tuplas ao meio até chegar ao tamanho mínimo de fatia
+	private static class Fatia extends RecursiveTask<Avaliacao> {
+
+		private static final long serialVersionUID = 1L;
+
+		Rede mlp;
+		ConjuntoDados dados;
+		int inicio, fim;
+
+		Fatia(Rede mlp, ConjuntoDados dados, int inicio, int fim){
+			this.mlp = mlp;
+			this.dados = dados;
+			this.inicio = inicio;
+			this.fim = fim;
+		}
+
+		protected Avaliacao compute(){
+
+			if(fim - inicio <= FATIA_MINIMA)
+				return avalia(mlp, dados, inicio, fim);
+
+			int meio = (inicio + fim)/2;
+			Fatia esquerda = new Fatia(mlp, dados, inicio, meio);
+			esquerda.fork();
+			Avaliacao resultado = new Fatia(mlp, dados, meio, fim).compute();
+
+			// as duas metades são sempre somadas na mesma ordem
+			Avaliacao total = esquerda.join();
+			total.soma(resultado);
+			return total;
+		}
+	}
+
+}
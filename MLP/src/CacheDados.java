@@ -0,0 +1,169 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class CacheDados {
+
+	/*
+	 * Cache binário dos conjuntos de dados lidos de arquivos CSV, compartilhado entre execuções e processos.
+	 * Na primeira leitura de um CSV, o ConjuntoDados correspondente é gravado em um arquivo binário no diretório
+	 * de cache; as leituras seguintes mapeiam esse arquivo em memória, somente para leitura, e copiam os valores
+	 * em bloco, sem interpretar nenhum texto. Processos que carregam o mesmo conjunto ao mesmo tempo leem assim
+	 * as mesmas páginas do cache de disco do sistema operacional.
+	 *
+	 * O nome do arquivo de cache é formado pelo nome do CSV e por uma chave calculada a partir do seu caminho
+	 * absoluto, tamanho e data de modificação; o tamanho e a data também ficam no cabeçalho e são conferidos
+	 * na leitura. Um CSV alterado, portanto, nunca é lido de um cache antigo.
+	 * O cache é escrito em um arquivo temporário e depois renomeado, de modo que nenhum processo encontra um
+	 * arquivo pela metade, mesmo quando vários processos criam o mesmo cache ao mesmo tempo.
+	 * O cache só é usado quando pedido (opção cache= de Main), e seus arquivos não são apagados automaticamente.
+	 * Os valores mapeados são copiados para arrays no heap: o ganho está em não interpretar o texto, não em evitar a cópia.
+	 *
+	 * Formato (little-endian):
+	 *   cabeçalho: assinatura "MLPD", versão do formato, linhas, colunas (inteiros de 4 bytes),
+	 *              tamanho e data de modificação do CSV em milissegundos (longs de 8 bytes)
+	 *   atributos: linhas*colunas doubles, linha após linha, como em ConjuntoDados
+	 *   classes:   um inteiro de 4 bytes por linha
+	 */
+
+	static final int ASSINATURA = 0x44504C4D; // "MLPD" lido em little-endian
+	static final int VERSAO = 1;
+	static final int TAMANHO_CABECALHO = 4*4 + 2*8;
+
+	// diretório usado quando nenhum outro é informado
+	static final String DIRETORIO_PADRAO = System.getProperty("java.io.tmpdir") + "/mlp-cache";
+
+
+	// Carrega o conjunto de dados do CSV dado (última coluna = classe), usando o cache do diretório padrão
+	public static ConjuntoDados carrega(String caminho) throws IOException {
+		return carrega(caminho, DIRETORIO_PADRAO);
+	}
+
+	// Carrega o conjunto de dados do CSV dado, usando o cache do diretório informado.
+	// Se o cache não puder ser lido ou gravado, o CSV é lido normalmente e o problema é apenas informado;
+	// erros na leitura do próprio CSV são lançados.
+	public static ConjuntoDados carrega(String caminho, String diretorio) throws IOException {
+
+		Path cache = null;
+		long tamanho = 0, modificacao = 0;
+
+		try {
+			Path origem = Paths.get(caminho).toAbsolutePath().normalize();
+			tamanho = Files.size(origem);
+			modificacao = Files.getLastModifiedTime(origem).toMillis();
+			cache = Paths.get(diretorio).resolve(nome(origem, tamanho, modificacao));
+
+			if(Files.isRegularFile(cache))
+				return le(cache, tamanho, modificacao);
+		} catch (IOException e) {
+			System.err.println("Cache de dados não pôde ser lido para " + caminho + ": " + e.getMessage());
+		}
+
+		// sem um cache válido, o CSV é lido e o cache é gravado para as próximas leituras
+		ConjuntoDados dados = Main.converteTupla(Arquivo.csvToDouble(caminho));
+		if(cache != null){
+			try {
+				grava(dados, cache, tamanho, modificacao);
+			} catch (IOException e) {
+				System.err.println("Cache de dados não pôde ser gravado para " + caminho + ": " + e.getMessage());
+			}
+		}
+		return dados;
+	}
+
+	// nome do arquivo de cache: nome do CSV seguido da chave em hexadecimal
+	static String nome(Path origem, long tamanho, long modificacao){
+		long chave = origem.toString().hashCode();
+		chave = chave*1000003 + tamanho;
+		chave = chave*1000003 + modificacao;
+		return origem.getFileName() + "-" + Long.toHexString(chave) + ".mlpd";
+	}
+
+
+	//************* Leitura *********************//
+
+	// Mapeia o arquivo de cache e copia seus valores em bloco para um novo ConjuntoDados
+	static ConjuntoDados le(Path cache, long tamanho, long modificacao) throws IOException {
+
+		RandomAccessFile arquivo = new RandomAccessFile(cache.toFile(), "r");
+		MappedByteBuffer mapa;
+		try {
+			FileChannel canal = arquivo.getChannel();
+			mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+		} finally {
+			// o mapeamento continua válido depois que o arquivo é fechado
+			arquivo.close();
+		}
+		mapa.order(ByteOrder.LITTLE_ENDIAN);
+
+		if(mapa.capacity() < TAMANHO_CABECALHO || mapa.getInt(0) != ASSINATURA || mapa.getInt(4) != VERSAO)
+			throw new IOException(cache + " não é um arquivo de cache de dados");
+		if(mapa.getLong(16) != tamanho || mapa.getLong(24) != modificacao)
+			throw new IOException(cache + " não corresponde à versão atual do CSV");
+
+		int linhas = mapa.getInt(8);
+		int colunas = mapa.getInt(12);
+		if(mapa.capacity() != TAMANHO_CABECALHO + (long)linhas*colunas*8 + (long)linhas*4)
+			throw new IOException(cache + " está incompleto");
+
+		double[] valores = new double[linhas*colunas];
+		int[] classes = new int[linhas];
+
+		mapa.position(TAMANHO_CABECALHO);
+		mapa.asDoubleBuffer().get(valores);
+		mapa.position(TAMANHO_CABECALHO + valores.length*8);
+		mapa.asIntBuffer().get(classes);
+
+		return new ConjuntoDados(valores, classes, colunas);
+	}
+
+
+	//************* Gravação *********************//
+
+	// Grava o conjunto em um arquivo temporário do diretório de cache e o renomeia para o nome final
+	static void grava(ConjuntoDados dados, Path cache, long tamanho, long modificacao) throws IOException {
+
+		ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_CABECALHO + dados.valores.length*8 + dados.linhas*4)
+				.order(ByteOrder.LITTLE_ENDIAN);
+
+		buffer.putInt(ASSINATURA);
+		buffer.putInt(VERSAO);
+		buffer.putInt(dados.linhas);
+		buffer.putInt(dados.colunas);
+		buffer.putLong(tamanho);
+		buffer.putLong(modificacao);
+
+		// atributos e classes, em cópias de bloco
+		buffer.asDoubleBuffer().put(dados.valores);
+		buffer.position(TAMANHO_CABECALHO + dados.valores.length*8);
+		buffer.asIntBuffer().put(dados.classes);
+		buffer.position(0);
+
+		Path diretorio = cache.getParent();
+		Files.createDirectories(diretorio);
+		Path temporario = Files.createTempFile(diretorio, cache.getFileName().toString(), ".tmp");
+		try {
+			FileChannel canal = FileChannel.open(temporario, StandardOpenOption.WRITE);
+			try {
+				while(buffer.hasRemaining())
+					canal.write(buffer);
+			} finally {
+				canal.close();
+			}
+
+			// a renomeação é atômica: quem abrir o cache encontra o arquivo antigo ou o novo, nunca um arquivo pela metade
+			Files.move(temporario, cache, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temporario);
+		}
+	}
+
+}
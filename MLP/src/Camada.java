@@ -0,0 +1,230 @@
+import java.util.Random;
+
+public class Camada {
+
+	/*
+	 * Esta classe representa uma camada inteira de neurônios da rede MLP.
+	 * Em vez de manter um objeto por neurônio, todos os pesos da camada ficam num único array contíguo,
+	 * organizado linha a linha (row-major): o peso da sinapse entre o neurônio j desta camada e o
+	 * neurônio i da camada anterior fica em peso[j*entradas + i].
+	 * Assim, o feedForward percorre a memória em sequência, sem saltar de objeto em objeto.
+	 */
+
+
+	//************* Formação da instância de camada *********************//
+
+	int neuronios; // quantidade de neurônios nesta camada
+	int entradas; // quantidade de neurônios na camada anterior, ou seja, quantos pesos cada neurônio desta camada armazena
+
+	double[] peso; // todos os pesos da camada, neurônio após neurônio
+	double[] vies; // um viés para cada neurônio
+
+	Ativacao funcao = Ativacao.BIPOLAR_SIGMOIDE; // função de ativação de todos os neurônios desta camada
+
+	// operações de vetores usadas pelos laços desta camada (SIMD quando disponível)
+	static final OperacaoVetores op = OperacaoVetores.ATUAL;
+
+	// A camada não guarda o resultado do feedForward: ele é sempre escrito em um array de quem chama,
+	// de modo que várias threads podem usar a mesma camada ao mesmo tempo para classificar.
+
+
+	// No momento de sua criação, a camada sabe quantos neurônios terá e quantos neurônios estão na camada anterior
+	public Camada(int neuronios, int entradas){
+		this.neuronios = neuronios;
+		this.entradas = entradas;
+
+		this.peso = new double[neuronios*entradas];
+		this.vies = new double[neuronios];
+	}
+
+
+	// Cria uma nova camada com as mesmas dimensões e os mesmos pesos da camada dada
+	public Camada(Camada original){
+		this(original.neuronios, original.entradas);
+		this.funcao = original.funcao;
+		original.copiaPara(this);
+	}
+
+
+	//************* Definição de pesos *********************//
+
+	// Define todos os pesos desta camada aleatoriamente
+	// Este método poderá ser chamado na inicialização de uma rede para treinamento
+	public void reset(){
+		reset(new Random());
+	}
+
+	// Define todos os pesos desta camada aleatoriamente a partir do gerador dado,
+	// o que permite repetir exatamente a mesma inicialização usando a mesma semente
+	public void reset(Random gerador){
+
+		for(int j = 0; j < neuronios; j++){
+
+			// Como nextDouble sempre retorna valores positivos, é preciso acrescentar mais uma camada de aleatoriedade para variar o sinal
+			for(int i = j*entradas; i < (j+1)*entradas; i++)
+				if(gerador.nextDouble() > 0.5)
+					this.peso[i] = gerador.nextDouble();
+				else
+					this.peso[i] = gerador.nextDouble()*(-1);
+
+			// determina o vies
+			if(gerador.nextDouble() > 0.5)
+				this.vies[j] = gerador.nextDouble();
+			else
+				this.vies[j] = gerador.nextDouble()*(-1);
+		}
+
+	}
+
+	// Zera todos os pesos desta camada
+	public void zera(){
+
+		for(int i = 0; i < peso.length; i++)
+			this.peso[i] = 0;
+
+		for(int j = 0; j < neuronios; j++)
+			this.vies[j] = 0;
+	}
+
+	// Copia todos os pesos e vieses desta camada para outra camada de mesmas dimensões, sem criar novos arrays
+	public void copiaPara(Camada destino){
+		System.arraycopy(this.peso, 0, destino.peso, 0, peso.length);
+		System.arraycopy(this.vies, 0, destino.vies, 0, vies.length);
+	}
+
+	// Altera o peso da sinapse entre o neurônio j desta camada e o neurônio i da camada anterior
+	public void setPeso(int j, int i, double variacao){
+		this.peso[j*entradas + i] += variacao;
+	}
+
+	// Retorna o peso da sinapse entre o neurônio j desta camada e o neurônio i da camada anterior
+	public double getPeso(int j, int i){
+		return this.peso[j*entradas + i];
+	}
+
+	public void setVies(int j, double vies){
+		this.vies[j] = vies;
+	}
+
+	public double getVies(int j){
+		return this.vies[j];
+	}
+
+
+	//************* Controle de feedforward *********************//
+
+	// Passa a entrada dada por todos os neurônios da camada de uma só vez e grava os resultados em "saida"
+	// Os valores de entrada são lidos diretamente do array, sem cópia
+	public void feedForward(double[] entrada, double[] saida){
+		feedForward(entrada, 0, saida);
+	}
+
+	// Como o método anterior, para a entrada que começa na posição "inicio" do array dado
+	// (por exemplo, uma linha de um ConjuntoDados)
+	public void feedForward(double[] entrada, int inicio, double[] saida){
+
+		int base = 0;
+		for(int j = 0; j < neuronios; j++){
+
+			// prepara o somatório
+			double soma = op.produtoEscalar(entrada, inicio, peso, base, entradas);
+			soma += vies[j];
+
+			saida[j] = ativacao(soma);
+			base += entradas;
+		}
+	}
+
+
+	//************* Operações em lote *********************//
+	// Nos métodos a seguir, cada lote é uma matriz guardada linha a linha em um único array:
+	// a linha b de uma matriz com n colunas ocupa as posições [b*n, (b+1)*n).
+
+	// feedForward de um lote inteiro: saida = f(entrada · pesoᵀ + vies)
+	// "entrada" tem "linhas" linhas de comprimento "entradas" e "saida" recebe "linhas" linhas de comprimento "neuronios"
+	public void feedForwardLote(double[] entrada, int linhas, double[] saida){
+
+		op.produtoMatriz(entrada, linhas, entradas, peso, neuronios, saida);
+
+		for(int b = 0; b < linhas; b++){
+			int linhaSaida = b*neuronios;
+			for(int j = 0; j < neuronios; j++)
+				saida[linhaSaida + j] = ativacao(saida[linhaSaida + j] + vies[j]);
+		}
+	}
+
+	// Propaga os termos de erro de um lote para a camada anterior: anterior = delta · peso
+	// "delta" tem "linhas" linhas de comprimento "neuronios" e "anterior" recebe "linhas" linhas de comprimento "entradas"
+	public void retropropagaLote(double[] delta, int linhas, double[] anterior){
+
+		for(int b = 0; b < linhas; b++){
+			int linhaDelta = b*neuronios;
+			int linhaAnterior = b*entradas;
+
+			for(int i = 0; i < entradas; i++)
+				anterior[linhaAnterior + i] = 0;
+
+			// percorre os pesos linha a linha, acumulando a contribuição de cada neurônio
+			int base = 0;
+			for(int j = 0; j < neuronios; j++){
+				op.axpy(delta[linhaDelta + j], peso, base, anterior, linhaAnterior, entradas);
+				base += entradas;
+			}
+		}
+	}
+
+	// Acumula o gradiente de um lote inteiro: gradPeso = deltaᵀ · entrada e gradVies = soma das linhas de delta
+	// Os arrays de gradiente são zerados antes da acumulação
+	public void gradienteLote(double[] delta, double[] entrada, int linhas, double[] gradPeso, double[] gradVies){
+
+		for(int i = 0; i < gradPeso.length; i++)
+			gradPeso[i] = 0;
+		for(int j = 0; j < neuronios; j++)
+			gradVies[j] = 0;
+
+		// cada tupla soma ao gradiente o produto externo entre seus termos de erro e sua entrada
+		for(int b = 0; b < linhas; b++){
+			int linhaDelta = b*neuronios;
+
+			for(int j = 0; j < neuronios; j++)
+				gradVies[j] += delta[linhaDelta + j];
+			op.externo(delta, linhaDelta, neuronios, entrada, b*entradas, entradas, gradPeso);
+		}
+	}
+
+	// Soma aos pesos e vieses o gradiente dado, multiplicado pela taxa informada
+	public void aplicaGradiente(double[] gradPeso, double[] gradVies, double taxa){
+		op.axpy(taxa, gradPeso, 0, peso, 0, peso.length);
+		op.axpy(taxa, gradVies, 0, vies, 0, neuronios);
+	}
+
+
+	//************* Funções de ativação e derivada *********************//
+
+	// Executa a função de ativação da camada (veja Ativacao)
+	// Recebe o valor de entrada dado ao neurônio e retorna o valor de saída
+	public double ativacao(double entrada){
+		return funcao.funcao(entrada);
+	}
+
+	// Executa a derivada da função de ativação a partir do valor já ativado pelo neurônio
+	public double derivada(double fAtivacao){
+		return funcao.derivada(fAtivacao);
+	}
+
+
+	//************* Funções de mapeamento e desempenho *********************//
+
+	/* Cria um código hash para o neurônio j desta camada
+	*  Para tanto, ele multiplica o viés e todos os pesos do neurônio uns pelos outros.
+	*/
+	public double hash(int j){
+		double produto = vies[j];
+
+		for(int i = j*entradas; i < (j+1)*entradas; i++){
+			produto *= peso[i];
+		}
+		return produto;
+	}
+
+}
@@ -0,0 +1,66 @@
+public class ConjuntoDados {
+
+	/*
+	 * Conjunto de tuplas (linhas) de dados com suas classes.
+	 * Todos os atributos ficam em um único array contíguo, linha após linha: o atributo j da linha i
+	 * está em valores[i*colunas + j]. As classes ficam em um array de inteiros à parte.
+	 * As linhas são acessadas pelo índice, sem cópia e sem nenhum estado de leitura, de modo que
+	 * várias threads podem ler o mesmo conjunto ao mesmo tempo.
+	 */
+
+	final double[] valores;
+	final int[] classes;
+	final int linhas;
+	final int colunas;
+
+	// Recebe os atributos já organizados linha após linha e a classe de cada linha (-1 quando desconhecida)
+	public ConjuntoDados(double[] valores, int[] classes, int colunas){
+		this.valores = valores;
+		this.classes = classes;
+		this.linhas = classes.length;
+		this.colunas = colunas;
+	}
+
+	// Copia para um novo conjunto uma matriz de atributos, com uma linha por tupla, e suas classes
+	public ConjuntoDados(double[][] dados, int[] classes){
+		this(new double[dados.length*dados[0].length], classes, dados[0].length);
+		for(int i = 0; i < linhas; i++)
+			System.arraycopy(dados[i], 0, valores, i*colunas, colunas);
+	}
+
+	// quantidade de tuplas
+	public int linhas(){
+		return linhas;
+	}
+
+	// quantidade de atributos de cada tupla
+	public int colunas(){
+		return colunas;
+	}
+
+	// posição do primeiro atributo da linha i em valores()
+	public int inicio(int i){
+		return i*colunas;
+	}
+
+	public double valor(int i, int j){
+		return valores[i*colunas + j];
+	}
+
+	public int classe(int i){
+		return classes[i];
+	}
+
+	// retorna o array interno com todos os atributos, sem cópia, para leitura direta pelas camadas da rede
+	public double[] valores(){
+		return valores;
+	}
+
+	// retorna uma cópia dos atributos da linha i
+	public double[] linha(int i){
+		double[] linha = new double[colunas];
+		System.arraycopy(valores, i*colunas, linha, 0, colunas);
+		return linha;
+	}
+
+}
@@ -0,0 +1,73 @@
+public class EspacoTrabalho {
+
+	/*
+	 * Esta classe reúne os arrays auxiliares usados em uma sessão de treinamento da rede MLP.
+	 * Eles são alocados uma única vez, no início do treinamento, e reaproveitados a cada tupla,
+	 * de forma que o feedForward e a backpropagation não criam nenhum objeto novo.
+	 */
+
+	double[] zJ; // saída de cada neurônio da camada escondida
+	double[] yK; // saída de cada neurônio da camada de saída
+	double[] deltaJ; // termo de erro de informação de cada neurônio escondido
+
+	// Arrays usados no treinamento em mini-lotes.
+	// Cada um guarda uma matriz linha a linha, com uma linha por tupla do lote.
+	int lote; // quantidade máxima de tuplas em um lote
+	double[] entradaLote; // tuplas do lote
+	double[] escondidaLote; // saídas da camada escondida
+	double[] saidaLote; // saídas da camada de saída
+	double[] deltaSaidaLote; // termos de erro da camada de saída
+	double[] deltaEscondidaLote; // termos de erro da camada escondida
+
+	// gradientes acumulados ao longo de um lote
+	double[] gradPesoSaida;
+	double[] gradViesSaida;
+	double[] gradPesoEscondida;
+	double[] gradViesEscondida;
+
+	// prepara os arrays de acordo com as dimensões da rede dada
+	public EspacoTrabalho(Rede mlp){
+		this(mlp, 0);
+	}
+
+	// prepara também os arrays de mini-lote, com espaço para "lote" tuplas
+	public EspacoTrabalho(Rede mlp, int lote){
+		int nEntrada = mlp.camadaEscondida.entradas;
+		int nEscondida = mlp.camadaEscondida.neuronios;
+		int nSaida = mlp.camadaSaida.neuronios;
+
+		this.zJ = new double[nEscondida];
+		this.yK = new double[nSaida];
+		this.deltaJ = new double[nEscondida];
+
+		// o treinamento tupla a tupla com atualização direta dos pesos não precisa dos arrays de lote
+		if(lote < 1)
+			return;
+
+		this.lote = lote;
+		this.entradaLote = new double[lote*nEntrada];
+		this.escondidaLote = new double[lote*nEscondida];
+		this.saidaLote = new double[lote*nSaida];
+		this.deltaSaidaLote = new double[lote*nSaida];
+		this.deltaEscondidaLote = new double[lote*nEscondida];
+
+		this.gradPesoSaida = new double[nSaida*nEscondida];
+		this.gradViesSaida = new double[nSaida];
+		this.gradPesoEscondida = new double[nEscondida*nEntrada];
+		this.gradViesEscondida = new double[nEscondida];
+	}
+
+	// soma aos gradientes deste espaço os gradientes acumulados em outro espaço de mesmas dimensões
+	public void somaGradiente(EspacoTrabalho outro){
+		soma(gradPesoSaida, outro.gradPesoSaida);
+		soma(gradViesSaida, outro.gradViesSaida);
+		soma(gradPesoEscondida, outro.gradPesoEscondida);
+		soma(gradViesEscondida, outro.gradViesEscondida);
+	}
+
+	private static void soma(double[] destino, double[] parcela){
+		for(int i = 0; i < destino.length; i++)
+			destino[i] += parcela[i];
+	}
+
+}
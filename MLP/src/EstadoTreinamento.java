@@ -0,0 +1,248 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.zip.CRC32;
+
+public class EstadoTreinamento {
+
+	/*
+	 * Tudo o que é preciso para continuar um treinamento exatamente de onde ele parou: os pesos atuais da rede,
+	 * a melhor rede encontrada até então, as épocas executadas, os fracassos seguidos na validação, o melhor
+	 * resultado de validação, a taxa de aprendizado, o otimizador usado e o estado da agenda e do otimizador.
+	 * É capturado ao final de uma época (veja PontoControle) e restaurado por Rede.Treinamento.retoma().
+	 *
+	 * Formato do arquivo (little-endian, como em ModeloBinario):
+	 *   cabeçalho:   assinatura "MLPE", versão do formato, épocas executadas, fracassos seguidos (inteiros de 4 bytes),
+	 *                melhor resultado de validação, taxa de aprendizado (doubles de 8 bytes),
+	 *                passos do otimizador, tamanho do estado da agenda, quantidade de arrays do otimizador,
+	 *                código do otimizador (veja Otimizador.NOMES) (inteiros de 4 bytes)
+	 *   redes:       rede atual e melhor rede, cada uma precedida do seu tamanho em bytes e gravada
+	 *                exatamente como um arquivo de ModeloBinario
+	 *   agenda:      estado da agenda (doubles)
+	 *   otimizador:  cada array de estado precedido do seu tamanho (-1 para um array ainda não criado)
+	 *   verificação: CRC32 de todos os bytes anteriores (1 long de 8 bytes)
+	 *
+	 * Os dados de treinamento são percorridos sempre na mesma ordem e a inicialização aleatória só acontece
+	 * antes da primeira época, de modo que não há estado de gerador aleatório a guardar.
+	 */
+
+	static final int ASSINATURA = 0x45504C4D; // "MLPE" lido em little-endian
+	static final int VERSAO = 1;
+	static final int TAMANHO_CABECALHO = 4*4 + 2*8 + 4*4;
+
+	int epocas;
+	int fracassosSeguidos;
+	double melhorResultado;
+	double aprendizado;
+
+	Rede rede; // pesos atuais
+	Rede melhorRede;
+
+	double[] agenda = new double[0];
+	int passos; // passos do otimizador
+	int codigoOtimizador; // código do otimizador em Otimizador.NOMES
+	double[][] otimizador = new double[0][]; // arrays de estado do otimizador, quatro blocos por array de Otimizador.estados()
+
+
+	//************* Captura e restauração *********************//
+
+	// Copia o estado atual do treinamento dado, reaproveitando os arrays desta instância sempre que possível.
+	// Deve ser chamado entre duas épocas, quando nenhuma thread está alterando os pesos.
+	void captura(Rede.Treinamento treinamento, int epocas, int fracassosSeguidos, double melhorResultado){
+		this.epocas = epocas;
+		this.fracassosSeguidos = fracassosSeguidos;
+		this.melhorResultado = melhorResultado;
+		this.aprendizado = treinamento.aprendizado;
+
+		rede = copia(treinamento.rede(), rede);
+		melhorRede = copia(treinamento.melhorRede, melhorRede);
+
+		if(treinamento.agenda != null)
+			agenda = treinamento.agenda.estado();
+
+		Otimizador regra = treinamento.otimizador;
+		codigoOtimizador = Otimizador.codigo(regra);
+		if(regra != null){
+			double[][][] estados = regra.estados();
+			if(otimizador.length != estados.length*4)
+				otimizador = new double[estados.length*4][];
+			for(int e = 0; e < estados.length; e++)
+				for(int b = 0; b < 4; b++)
+					otimizador[e*4 + b] = copia(estados[e][b], otimizador[e*4 + b]);
+			passos = regra.passos;
+		}
+	}
+
+	// Coloca este estado no treinamento dado: pesos, taxa de aprendizado, agenda e otimizador.
+	// As dimensões da rede, as funções de ativação e o otimizador devem ser os mesmos do treinamento gravado.
+	// As épocas, os fracassos, o melhor resultado e a melhor rede são usados por Rede.Treinamento.executar().
+	void restaura(Rede.Treinamento treinamento){
+		Rede atual = treinamento.rede();
+		if(atual.camadaEscondida.entradas != rede.camadaEscondida.entradas
+				|| atual.camadaEscondida.neuronios != rede.camadaEscondida.neuronios
+				|| atual.camadaSaida.neuronios != rede.camadaSaida.neuronios)
+			throw new IllegalArgumentException("O ponto de controle tem dimensões de rede diferentes das deste treinamento");
+
+		if(atual.camadaEscondida.funcao != rede.camadaEscondida.funcao || atual.camadaSaida.funcao != rede.camadaSaida.funcao)
+			throw new IllegalArgumentException("O ponto de controle foi gravado com as ativações " + rede.camadaEscondida.funcao.nome
+					+ "/" + rede.camadaSaida.funcao.nome + " (escondida/saída), e este treinamento usa "
+					+ atual.camadaEscondida.funcao.nome + "/" + atual.camadaSaida.funcao.nome);
+
+		Otimizador regra = treinamento.otimizador;
+		if(codigoOtimizador != Otimizador.codigo(regra))
+			throw new IllegalArgumentException("O ponto de controle foi gravado com o otimizador " + Otimizador.NOMES[codigoOtimizador]
+					+ ", e este treinamento usa " + Otimizador.NOMES[Otimizador.codigo(regra)]);
+		int arrays = (regra == null) ? 0 : regra.estados().length*4;
+		if(arrays != otimizador.length)
+			throw new IllegalArgumentException("O ponto de controle tem um estado de otimizador incompatível com " + Otimizador.NOMES[Otimizador.codigo(regra)]);
+
+		rede.copiaPara(atual);
+		treinamento.aprendizado = aprendizado;
+
+		if(treinamento.agenda != null && agenda.length > 0)
+			treinamento.agenda.restaura(agenda);
+
+		if(regra != null){
+			double[][][] estados = regra.estados();
+			for(int e = 0; e < estados.length; e++)
+				for(int b = 0; b < 4; b++)
+					estados[e][b] = (otimizador[e*4 + b] == null) ? null : otimizador[e*4 + b].clone();
+			regra.passos = passos;
+		}
+	}
+
+	private static Rede copia(Rede origem, Rede destino){
+		if(destino == null)
+			return origem.clonar();
+		origem.copiaPara(destino);
+		return destino;
+	}
+
+	private static double[] copia(double[] origem, double[] destino){
+		if(origem == null)
+			return null;
+		if(destino == null || destino.length != origem.length)
+			return origem.clone();
+		System.arraycopy(origem, 0, destino, 0, origem.length);
+		return destino;
+	}
+
+
+	//************* Gravação e leitura *********************//
+
+	// Grava este estado no caminho especificado
+	public void grava(String caminho) throws IOException {
+
+		ByteBuffer redeAtual = ModeloBinario.codifica(rede);
+		ByteBuffer redeMelhor = ModeloBinario.codifica(melhorRede);
+
+		int tamanho = TAMANHO_CABECALHO + 4 + redeAtual.remaining() + 4 + redeMelhor.remaining() + agenda.length*8;
+		for(double[] estado : otimizador)
+			tamanho += 4 + ((estado == null) ? 0 : estado.length*8);
+		ByteBuffer buffer = ByteBuffer.allocate(tamanho + 8).order(ByteOrder.LITTLE_ENDIAN);
+
+		buffer.putInt(ASSINATURA);
+		buffer.putInt(VERSAO);
+		buffer.putInt(epocas);
+		buffer.putInt(fracassosSeguidos);
+		buffer.putDouble(melhorResultado);
+		buffer.putDouble(aprendizado);
+		buffer.putInt(passos);
+		buffer.putInt(agenda.length);
+		buffer.putInt(otimizador.length);
+		buffer.putInt(codigoOtimizador);
+
+		buffer.putInt(redeAtual.remaining());
+		buffer.put(redeAtual);
+		buffer.putInt(redeMelhor.remaining());
+		buffer.put(redeMelhor);
+
+		for(double valor : agenda)
+			buffer.putDouble(valor);
+
+		for(double[] estado : otimizador){
+			if(estado == null){
+				buffer.putInt(-1);
+				continue;
+			}
+			buffer.putInt(estado.length);
+			for(double valor : estado)
+				buffer.putDouble(valor);
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, tamanho);
+		buffer.putLong(crc.getValue());
+
+		buffer.flip();
+		RandomAccessFile arquivo = new RandomAccessFile(caminho, "rw");
+		try {
+			FileChannel canal = arquivo.getChannel();
+			arquivo.setLength(0);
+			while(buffer.hasRemaining())
+				canal.write(buffer);
+		} finally {
+			arquivo.close();
+		}
+	}
+
+	// Lê um estado gravado por grava(), conferindo a assinatura, a versão e o CRC32
+	public static EstadoTreinamento le(String caminho) throws IOException {
+
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(Paths.get(caminho))).order(ByteOrder.LITTLE_ENDIAN);
+
+		if(buffer.capacity() < TAMANHO_CABECALHO + 8 || buffer.getInt(0) != ASSINATURA)
+			throw new IOException(caminho + " não é um ponto de controle de treinamento MLP");
+		if(buffer.getInt(4) != VERSAO)
+			throw new IOException(caminho + ": versão de formato " + buffer.getInt(4) + " não suportada");
+
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, buffer.capacity() - 8);
+		if(crc.getValue() != buffer.getLong(buffer.capacity() - 8))
+			throw new IOException(caminho + ": CRC32 não confere, arquivo corrompido");
+
+		EstadoTreinamento estado = new EstadoTreinamento();
+		buffer.position(8);
+		estado.epocas = buffer.getInt();
+		estado.fracassosSeguidos = buffer.getInt();
+		estado.melhorResultado = buffer.getDouble();
+		estado.aprendizado = buffer.getDouble();
+		estado.passos = buffer.getInt();
+		estado.agenda = new double[buffer.getInt()];
+		estado.otimizador = new double[buffer.getInt()][];
+		estado.codigoOtimizador = buffer.getInt();
+		if(estado.codigoOtimizador < 0 || estado.codigoOtimizador >= Otimizador.NOMES.length)
+			throw new IOException(caminho + ": código de otimizador " + estado.codigoOtimizador + " desconhecido");
+
+		estado.rede = leRede(buffer, caminho);
+		estado.melhorRede = leRede(buffer, caminho);
+
+		for(int i = 0; i < estado.agenda.length; i++)
+			estado.agenda[i] = buffer.getDouble();
+
+		for(int a = 0; a < estado.otimizador.length; a++){
+			int tamanho = buffer.getInt();
+			if(tamanho < 0)
+				continue;
+			estado.otimizador[a] = new double[tamanho];
+			for(int i = 0; i < tamanho; i++)
+				estado.otimizador[a][i] = buffer.getDouble();
+		}
+
+		return estado;
+	}
+
+	// lê uma rede gravada no formato de ModeloBinario a partir da posição atual do buffer
+	private static Rede leRede(ByteBuffer buffer, String caminho) throws IOException {
+		int tamanho = buffer.getInt();
+		ByteBuffer conteudo = buffer.duplicate();
+		conteudo.limit(buffer.position() + tamanho);
+		buffer.position(buffer.position() + tamanho);
+		return ModeloBinario.abre(conteudo, caminho).paraRede();
+	}
+
+}
@@ -0,0 +1,71 @@
+public class Inferencia {
+
+	/*
+	 * Visão somente leitura de uma Rede já treinada, para classificação.
+	 * Os resultados intermediários de cada classificação ficam em arrays auxiliares de quem chama
+	 * (um EspacoTrabalho) ou, quando nenhum é informado, num EspacoTrabalho próprio de cada thread.
+	 * Como os pesos nunca são alterados aqui, muitas threads podem classificar com a mesma rede
+	 * ao mesmo tempo sem precisar cloná-la.
+	 * Os pesos não são copiados: se a rede continuar sendo treinada, as classificações acompanham os novos pesos.
+	 */
+
+	private final Rede mlp;
+
+	// arrays auxiliares de cada thread, criados na primeira classificação feita por ela
+	private final ThreadLocal<EspacoTrabalho> espacos = new ThreadLocal<EspacoTrabalho>() {
+		protected EspacoTrabalho initialValue(){
+			return new EspacoTrabalho(mlp);
+		}
+	};
+
+	public Inferencia(Rede mlp){
+		this.mlp = mlp;
+	}
+
+	// Classifica uma entrada usando os arrays auxiliares da thread atual
+	public int classifica(double[] entrada){
+		return classifica(entrada, espacos.get());
+	}
+
+	// Classifica uma entrada usando os arrays auxiliares dados, que devem pertencer a uma única thread.
+	// Ao final, ws.yK guarda a ativação da camada de saída.
+	public int classifica(double[] entrada, EspacoTrabalho ws){
+		return classifica(entrada, 0, ws);
+	}
+
+	// Classifica a linha i de um conjunto de dados, lida diretamente do conjunto, sem cópia
+	public int classifica(ConjuntoDados dados, int i){
+		return classifica(dados.valores(), dados.inicio(i), espacos.get());
+	}
+
+	// Classifica a entrada que começa na posição "inicio" do array dado
+	private int classifica(double[] entrada, int inicio, EspacoTrabalho ws){
+
+		// passa todas as colunas da entrada para a camada escondida e armazena os resultados
+		mlp.camadaEscondida.feedForward(entrada, inicio, ws.zJ);
+
+		// passa todos os valores da camada escondida para a camada de saída e armazena os resultados finais
+		mlp.camadaSaida.feedForward(ws.zJ, ws.yK);
+
+		return Rede.decide(ws.yK);
+	}
+
+	// Classifica uma entrada e copia a ativação da camada de saída para "saida"
+	public int classifica(double[] entrada, double[] saida){
+		EspacoTrabalho ws = espacos.get();
+		int classe = classifica(entrada, ws);
+		System.arraycopy(ws.yK, 0, saida, 0, ws.yK.length);
+		return classe;
+	}
+
+	// Classifica várias entradas de uma vez (veja Rede.executar(double[][]))
+	public int[] classifica(double[][] entradas){
+		return mlp.executar(entradas);
+	}
+
+	// Retorna um novo conjunto de arrays auxiliares para uso com classifica(entrada, ws)
+	public EspacoTrabalho novoEspaco(){
+		return new EspacoTrabalho(mlp);
+	}
+
+}
@@ -1,70 +1,271 @@
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.Iterator;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.LinkedList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 
 public class Log {
-	
-	List<String> dados = new LinkedList<String>();
+
+	/*
+	 * Log de desempenho do treinamento, gravado em CSV com ";" como separador.
+	 * A thread de treinamento não formata nem grava as linhas: cada addDados apenas coloca um registro,
+	 * com os valores nos seus tipos primitivos, em uma fila limitada. Uma única thread de gravação,
+	 * compartilhada por todos os logs, retira os registros em lotes, monta as linhas e as escreve no arquivo
+	 * de cada log, descarregando os arquivos em disco a cada INTERVALO_DESCARGA milissegundos.
+	 * Assim, o treinamento não espera pelo disco, a memória usada pelos logs é limitada pelo tamanho da fila
+	 * e, se o processo for interrompido, só se perdem as linhas do último intervalo.
+	 *
+	 * gravaArquivo() encerra o log: as linhas pendentes são gravadas e o arquivo é fechado pela thread de gravação.
+	 * Ao final do programa, um gancho de desligamento esvazia a fila e fecha todos os arquivos ainda abertos.
+	 * Registros enviados depois disso são gravados um a um, sob a trava de Gravacao, por quem os enviou:
+	 * o arquivo é reaberto para acréscimo e fechado logo em seguida, sem perder as linhas já gravadas.
+	 */
+
+	static final int CAPACIDADE_FILA = 4096; // registros pendentes, somando todos os logs
+	static final long INTERVALO_DESCARGA = 1000;
+
 	private String nomeArquivo;
 	private String diretorio;
 	private String extensao = ".csv";
-	
-	// construtor prepara a pŕimeira linha do CSV a ser gravado
+
+	// arquivo deste log, aberto no primeiro registro e usado somente pela thread de gravação
+	private BufferedWriter arquivo;
+	// indica se o arquivo já foi criado, com o cabeçalho; se for aberto de novo, as linhas são acrescentadas ao final
+	private boolean criado;
+
+	// construtor prepara o diretório; a primeira linha do CSV é escrita quando o arquivo é aberto
 	public Log(){
-		String linha = "epocaAtual;taxaErros;erroQuadrado;taxaAprendizadoAtual;idRede";
-		dados.add(linha);
 		diretorio = "";
 	}
-	
+
 	public void addDados(int epocaAtual, double desempenho, double erroQuadrado, double taxaAprendizadoAtual, String idRede) {
-		// As strings já são formatadas no formato do .csv, utilizando ";" como separador
-		String linha = epocaAtual + ";" + desempenho + ";" + erroQuadrado + ";" + taxaAprendizadoAtual + ";" + idRede;
-		dados.add(linha);
+		Gravacao.envia(new Registro(this, epocaAtual, desempenho, erroQuadrado, taxaAprendizadoAtual, idRede, false));
 	}
-	
+
 	// sobrecarga de addDados torna campo idRede não-obrigatório para o usuário desta classe
 	public void addDados(int epocaAtual, double desempenho, double erroQuadrado, double taxaAprendizadoAtual){
 		addDados(epocaAtual, desempenho, erroQuadrado, taxaAprendizadoAtual,"");
 	}
-	
-	public void limparDados() {
-		dados.clear();
-	}
-	
+
 	public void setNomeArquivo(String nome) {
 		nomeArquivo = nome;
 	}
-	
+
 	public String getNomeArquivo() {
 		return nomeArquivo;
 	}
-	
+
 	public void setDiretorio(String d) {
 		diretorio = d;
 	}
-	
+
 	public String getDiretorio() {
 		return diretorio;
 	}
 
+	// Encerra o log: depois das linhas já enviadas, o arquivo é descarregado e fechado pela thread de gravação
 	public void gravaArquivo() {
-		try {
-			FileWriter arq = new FileWriter(diretorio + nomeArquivo + extensao);
-			PrintWriter gravarArq = new PrintWriter(arq);
-			Iterator<String> it = dados.iterator();
-			while(it.hasNext()) {
-				gravarArq.println(it.next()); // percorre toda a lista de dados, já devidamente formatada, e adiciona linha por linha
+		Gravacao.envia(new Registro(this, 0, 0, 0, 0, null, true));
+	}
+
+	// Espera a gravação de todos os registros enviados por todos os logs e fecha os arquivos abertos.
+	// É chamado automaticamente ao final do programa.
+	public static void encerra() {
+		Gravacao.encerra();
+	}
+
+
+	//************* Registros e thread de gravação *********************//
+
+	// Uma linha do log, ou o pedido de fechamento do arquivo (fim); com log nulo, indica o encerramento da gravação
+	static class Registro {
+		final Log log;
+		final int epocaAtual;
+		final double desempenho, erroQuadrado, taxaAprendizadoAtual;
+		final String idRede;
+		final boolean fim;
+
+		Registro(Log log, int epocaAtual, double desempenho, double erroQuadrado, double taxaAprendizadoAtual, String idRede, boolean fim){
+			this.log = log;
+			this.epocaAtual = epocaAtual;
+			this.desempenho = desempenho;
+			this.erroQuadrado = erroQuadrado;
+			this.taxaAprendizadoAtual = taxaAprendizadoAtual;
+			this.idRede = idRede;
+			this.fim = fim;
+		}
+	}
+
+	static class Gravacao implements Runnable {
+
+		private static final BlockingQueue<Registro> fila = new ArrayBlockingQueue<Registro>(CAPACIDADE_FILA);
+		private static Thread thread;
+		private static boolean encerrada;
+
+		// logs com arquivo aberto e linha reaproveitada na formatação; usados somente pela thread de gravação
+		private final List<Log> abertos = new ArrayList<Log>();
+		private final StringBuilder linha = new StringBuilder();
+
+		// Coloca o registro na fila, iniciando a thread de gravação no primeiro uso.
+		// Só espera se a fila estiver cheia, o que limita a memória usada quando o disco não acompanha os registros.
+		// A verificação do encerramento e a inclusão na fila são feitas sob a mesma trava usada por encerra(),
+		// de modo que todo registro aceito na fila chega antes do registro de encerramento e é gravado pela thread.
+		// Enquanto a gravação não foi encerrada, a thread de gravação continua esvaziando a fila, então a espera
+		// com a trava não impede seu progresso.
+		static void envia(Registro registro){
+			synchronized(Gravacao.class){
+				if(encerrada){
+					// depois do encerramento, o registro é gravado na própria thread que o enviou
+					Gravacao direta = new Gravacao();
+					direta.grava(registro);
+					direta.fechaTodos();
+					return;
+				}
+				if(thread == null)
+					inicia();
+
+				try {
+					fila.put(registro);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		private static void inicia(){
+			thread = new Thread(new Gravacao(), "gravacao-log");
+			thread.setDaemon(true);
+			thread.start();
+
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				public void run(){
+					Gravacao.encerra();
+				}
+			});
+		}
+
+		static void encerra(){
+			Thread gravacao;
+			synchronized(Gravacao.class){
+				if(encerrada || thread == null){
+					encerrada = true;
+					return;
+				}
+				encerrada = true;
+				gravacao = thread;
+			}
+
+			// nenhum registro entra na fila depois deste: os enviados a partir de agora são gravados por quem os enviou
+			try {
+				fila.put(new Registro(null, 0, 0, 0, 0, null, true));
+				gravacao.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		public void run(){
+			List<Registro> lote = new ArrayList<Registro>();
+			long ultimaDescarga = System.currentTimeMillis();
+
+			while(true){
+				// espera o próximo registro por no máximo um intervalo de descarga e leva junto todos os que já estão na fila
+				try {
+					Registro primeiro = fila.poll(INTERVALO_DESCARGA, TimeUnit.MILLISECONDS);
+					if(primeiro != null){
+						lote.add(primeiro);
+						fila.drainTo(lote);
+					}
+				} catch (InterruptedException e) {
+					// a thread só termina pelo registro de encerramento
+				}
+
+				boolean encerrar = false;
+				for(Registro registro : lote){
+					if(registro.log == null)
+						encerrar = true;
+					else
+						grava(registro);
+				}
+				lote.clear();
+
+				long agora = System.currentTimeMillis();
+				if(encerrar || agora - ultimaDescarga >= INTERVALO_DESCARGA){
+					descarrega();
+					ultimaDescarga = agora;
+				}
+
+				if(encerrar){
+					// fecha os arquivos de logs que não chegaram a ser encerrados
+					fechaTodos();
+					return;
+				}
+			}
+		}
+
+		// Escreve o registro no arquivo do seu log, abrindo o arquivo se necessário
+		private void grava(Registro registro){
+			Log log = registro.log;
+			try {
+				if(log.arquivo == null){
+					// um arquivo já criado por este log é reaberto para acréscimo, sem repetir o cabeçalho
+					log.arquivo = new BufferedWriter(new FileWriter(log.diretorio + log.nomeArquivo + log.extensao, log.criado));
+					abertos.add(log);
+					if(!log.criado){
+						log.arquivo.write("epocaAtual;taxaErros;erroQuadrado;taxaAprendizadoAtual;idRede");
+						log.arquivo.newLine();
+						log.criado = true;
+					}
+				}
+
+				if(registro.fim){
+					fecha(log);
+					return;
+				}
+
+				// As linhas são formatadas no formato do .csv, utilizando ";" como separador
+				linha.setLength(0);
+				linha.append(registro.epocaAtual).append(';').append(registro.desempenho).append(';')
+					.append(registro.erroQuadrado).append(';').append(registro.taxaAprendizadoAtual).append(';')
+					.append(registro.idRede);
+				log.arquivo.append(linha);
+				log.arquivo.newLine();
+			} catch (IOException e) {
+				e.printStackTrace();
+				fecha(log);
+			}
+		}
+
+		// Descarrega em disco todos os arquivos abertos
+		private void descarrega(){
+			for(Log log : abertos){
+				try {
+					log.arquivo.flush();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		private void fechaTodos(){
+			while(!abertos.isEmpty())
+				fecha(abertos.get(abertos.size() - 1));
+		}
+
+		private void fecha(Log log){
+			abertos.remove(log);
+			if(log.arquivo == null)
+				return;
+			try {
+				log.arquivo.close();
+			} catch (IOException e) {
+				e.printStackTrace();
 			}
-			gravarArq.close();
-		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+			log.arquivo = null;
 		}
-		// Após os dados serem gravados, a lista é esvaziada
-		limparDados();
 	}
 }
@@ -1,4 +1,8 @@
-﻿public class Main {
+﻿import java.io.IOException;
+import java.util.Date;
+import java.util.Random;
+
+public class Main {
 	
 	/* 
 	Esta classe é o ponto de entrada para a rede neural MLP.
@@ -9,39 +13,106 @@
 	public static void main(String[] args){
 		if(args.length < 9) {
 			System.out.println("Uso: MLP [arquivo de entrada] [arquivo de validacao] [arquivo de teste] " +
-					"[taxa de aprendizado inicial] [num. de neuronios na camada escondida] [inicializacao de pesos aleatoria (true/false)] [intervalos de validacao] [fracassos aceitos] [repeticoes]");
+					"[taxa de aprendizado inicial] [num. de neuronios na camada escondida] [inicializacao de pesos aleatoria (true/false)] [intervalos de validacao] [fracassos aceitos] [repeticoes] " +
+					"[opcoes no formato chave=valor, por exemplo lote=32]");
 			System.exit(1);
 		}
 		
 		int repeticoes = Integer.parseInt(args[8]);
 		
 		try {
-			double taxaAprendizadoInicial = Double.parseDouble(args[3]);
-			int neuroniosCamadaEscondida = Integer.parseInt(args[4]);
-			boolean pesosAleatorios = Boolean.parseBoolean(args[5]);
+			final double taxaAprendizadoInicial = Double.parseDouble(args[3]);
+			final int neuroniosCamadaEscondida = Integer.parseInt(args[4]);
+			final boolean pesosAleatorios = Boolean.parseBoolean(args[5]);
 			
 			int intervalo = Integer.parseInt(args[6]);
 			int fracassos = Integer.parseInt(args[7]);
 			
-			for (int i = 0; i < repeticoes; i++) {
-				// mudança para receber arquivos de holdout sequenciais
-				Tupla[] entrada = converteTupla(Arquivo.csvToDouble(args[0]));
-				Tupla[] validacao = converteTupla(Arquivo.csvToDouble(args[1]));
-				Tupla[] teste = converteTupla(Arquivo.csvToDouble(args[2]));
-				
-				Rede mlp = new Rede(entrada[0].length(),neuroniosCamadaEscondida,10,pesosAleatorios);
-				
-				Rede.Treinamento train = mlp.new Treinamento(entrada, validacao, teste, taxaAprendizadoInicial);
-				
-				train.executar(intervalo,fracassos);
-			}
+			// opções adicionais, todas opcionais
+			final int tamanhoLote = Integer.parseInt(opcao(args, "lote", "1"));
+			final int threads = Integer.parseInt(opcao(args, "threads", "1"));
+			final String paralelo = opcao(args, "paralelo", "hogwild");
+			final String semente = opcao(args, "semente", null);
+			final String precisao = opcao(args, "precisao", "double");
+			final Ativacao ativacao = Ativacao.porNome(opcao(args, "ativacao", "bipolar"));
+			final Ativacao ativacaoSaida = Ativacao.porNome(opcao(args, "ativacaoSaida", "bipolar"));
+			final String otimizador = opcao(args, "otimizador", null);
+			final String agenda = opcao(args, "agenda", null);
+			String cache = opcao(args, "cache", "nao");
+			if(cache.equals("sim"))
+				cache = CacheDados.DIRETORIO_PADRAO;
+			final int pontosControle = Integer.parseInt(opcao(args, "pontosControle", "0"));
+			final long intervaloPontosControle = Long.parseLong(opcao(args, "intervaloPontosControle", "30"))*1000;
+			final String retomar = opcao(args, "retomar", null);
+			
+			// em precisão simples o treinamento é sempre tupla a tupla, em uma thread e pela descida de gradiente simples
+			if(precisao.equals("float") && (tamanhoLote > 1 || threads > 1 || otimizador != null))
+				throw new IllegalArgumentException("As opções lote, threads e otimizador não podem ser usadas com precisao=float");
+			
+			// no modo síncrono cada lote é dividido entre as threads, e um lote maior que o pedido mudaria a otimização
+			if(threads > 1 && paralelo.equals("sincrono") && tamanhoLote < threads)
+				throw new IllegalArgumentException("Com paralelo=sincrono, o lote deve ter ao menos uma tupla por thread (lote >= threads)");
+			
+			// pontos de controle a partir dos quais as repetições continuam, na ordem das repetições
+			final EstadoTreinamento[] retomadas = (retomar == null) ? new EstadoTreinamento[0] : leEstados(retomar.split(","));
+			
+			// os arquivos são lidos uma única vez e os conjuntos de dados são compartilhados, somente para leitura, por todas as repetições
+			final ConjuntoDados entrada = leConjunto(args[0], cache);
+			final ConjuntoDados validacao = leConjunto(args[1], cache);
+			final ConjuntoDados teste = leConjunto(args[2], cache);
+			
+			// as repetições são executadas ao mesmo tempo, cada uma com sua própria rede
+			PosProcessamento posProcessamento = new PosProcessamento(neuroniosCamadaEscondida, taxaAprendizadoInicial, new Date());
+			Repeticoes execucao = new Repeticoes(posProcessamento, threads);
+			
+			execucao.executa(repeticoes, new Repeticoes.Fabrica() {
+				public Rede.Treinamento cria(int i){
+					
+					// com uma semente informada, cada repetição parte de uma inicialização reproduzível
+					Random gerador = (semente == null) ? new Random() : new Random(Long.parseLong(semente) + i);
+					Rede mlp = new Rede(entrada.colunas(),neuroniosCamadaEscondida,10,pesosAleatorios,gerador);
+					mlp.setAtivacao(ativacao, ativacaoSaida);
+					
+					// com mais de uma thread, cada uma treina uma fatia dos dados sobre os pesos compartilhados,
+					// sem travas (hogwild) ou com soma determinística dos gradientes de cada lote (sincrono);
+					// em precisão simples (float), o treinamento é sempre tupla a tupla, em uma única thread
+					Rede.Treinamento train;
+					if(precisao.equals("float"))
+						train = mlp.new TreinamentoFloat(entrada, validacao, teste, taxaAprendizadoInicial);
+					else if(threads > 1 && paralelo.equals("sincrono"))
+						train = mlp.new TreinamentoSincrono(entrada, validacao, teste, taxaAprendizadoInicial, threads);
+					else if(threads > 1)
+						train = mlp.new TreinamentoParalelo(entrada, validacao, teste, taxaAprendizadoInicial, threads);
+					else
+						train = mlp.new Treinamento(entrada, validacao, teste, taxaAprendizadoInicial);
+					train.setTamanhoLote(tamanhoLote);
+					
+					// cada repetição tem seu próprio otimizador, já que ele guarda estado para cada peso
+					if(otimizador != null)
+						train.setOtimizador(Otimizador.porNome(otimizador));
+					
+					// a agenda de platô também guarda estado, então cada repetição recebe a sua
+					if(agenda != null)
+						train.setAgenda(AgendaAprendizado.porNome(agenda, taxaAprendizadoInicial));
+					
+					train.setPontosControle(pontosControle, intervaloPontosControle);
+					
+					// depois do otimizador e da agenda, para que o estado deles também seja restaurado
+					if(i < retomadas.length)
+						train.retoma(retomadas[i]);
+					
+					return train;
+				}
+			}, intervalo, fracassos);
 			
 			// prepara e grava os sumários de pós-processamento
-			PosProcessamento.getInstance().gravaArq();
-			PosProcessamento.clear();
+			posProcessamento.gravaArq();
 			
 			
 		} catch(Exception e) {
+			// combinações de opções inválidas e erros de leitura dos arquivos são explicados antes da mensagem geral
+			if((e instanceof IllegalArgumentException || e instanceof IOException) && e.getMessage() != null)
+				System.out.println(e.getMessage());
 			System.out.println("Argumentos preenchidos incorretamente! Consulte o arquivo readme.txt para mais detalhes.");
 			System.exit(1);
 		}
@@ -49,31 +120,48 @@
 	}
 	
 	
-	// Separa os dados de suas classes e retorna um array de Tuplas.
+	// Procura, entre os argumentos posteriores aos 9 obrigatórios, uma opção no formato "chave=valor".
+	// Se a opção não tiver sido informada, o valor padrão é retornado.
+	public static String opcao(String[] args, String chave, String padrao){
+		for(int i = 9; i < args.length; i++){
+			if(args[i].startsWith(chave + "="))
+				return args[i].substring(chave.length() + 1);
+		}
+		return padrao;
+	}
+	
+	
+	// Lê os pontos de controle gravados por PontoControle
+	static EstadoTreinamento[] leEstados(String[] caminhos) throws IOException {
+		EstadoTreinamento[] estados = new EstadoTreinamento[caminhos.length];
+		for(int i = 0; i < caminhos.length; i++)
+			estados[i] = EstadoTreinamento.le(caminhos[i]);
+		return estados;
+	}
+	
+	// Lê um arquivo CSV de dados, pelo cache binário do diretório dado ou, com "nao" (padrão), diretamente do texto
+	static ConjuntoDados leConjunto(String caminho, String cache) throws IOException {
+		if(cache.equals("nao"))
+			return converteTupla(Arquivo.csvToDouble(caminho));
+		return CacheDados.carrega(caminho, cache);
+	}
+	
+	
+	// Separa os dados de suas classes e retorna um ConjuntoDados.
 	// A última coluna de dados será sempre considerada a classe.
-	public static Tupla[] converteTupla(double[][] entrada){
+	public static ConjuntoDados converteTupla(double[][] entrada){
 		
-		double[][] dados = new double[entrada.length][(entrada[0].length-1)];
+		int colunas = entrada[0].length-1;
+		double[] dados = new double[entrada.length*colunas];
 		int[] classe = new int[entrada.length];
 		
+		// os atributos de cada linha são copiados, linha após linha, para um único array
 		for(int i = 0; i < entrada.length; i++){
-
-			for(int j = 0; j < entrada[0].length; j++){
-				if(j < (entrada[0].length-1))
-					dados[i][j] = entrada[i][j];
-				else
-					classe[i] = (int)entrada[i][j];
-			}
-		}
-		
-		// cria as tuplas correspondentes
-		Tupla[] tupla = new Tupla[entrada.length];
-		
-		for (int i = 0; i < classe.length; i++) {
-			tupla[i] = new Tupla(dados[i],classe[i]);
+			System.arraycopy(entrada[i], 0, dados, i*colunas, colunas);
+			classe[i] = (int)entrada[i][colunas];
 		}
 		
-		return tupla;
+		return new ConjuntoDados(dados, classe, colunas);
 		
 	}
 	
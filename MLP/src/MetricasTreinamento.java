@@ -0,0 +1,155 @@
+import java.lang.management.ManagementFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class MetricasTreinamento implements MetricasTreinamentoMBean {
+
+	/*
+	 * Métricas de um treinamento em andamento, publicadas como MBean no servidor JMX da plataforma, com o nome
+	 * "mlp:type=Treinamento,name=<nome do treinamento>". Podem ser acompanhadas ao vivo pelo JConsole ou pelo
+	 * VisualVM, conectados ao processo local, sem depender da saída do console; com várias repetições, cada
+	 * treinamento tem o seu MBean.
+	 *
+	 * Somente a thread do treinamento altera os valores, entre as épocas; os campos são volatile para que as
+	 * leituras do JMX vejam sempre o valor mais recente, sem travas. O MBean é removido quando o treinamento termina.
+	 */
+
+	static final String DOMINIO = "mlp";
+
+	private ObjectName nome;
+
+	private volatile int epocaAtual;
+	private volatile double tuplasPorSegundo;
+
+	private volatile double taxaErrosTreinamento = Double.NaN;
+	private volatile double erroQuadradoTreinamento = Double.NaN;
+	private volatile double taxaErrosValidacao = Double.NaN;
+	private volatile double erroQuadradoValidacao = Double.NaN;
+	private volatile double melhorTaxaErrosValidacao = Double.NaN;
+
+	private volatile int fracassosSeguidos;
+	private final int fracassosPermitidos;
+	private volatile double taxaAprendizado;
+
+	private volatile long nanosTreinamento;
+	private volatile long nanosAvaliacao;
+
+
+	public MetricasTreinamento(int fracassosPermitidos){
+		this.fracassosPermitidos = fracassosPermitidos;
+	}
+
+	// Publica as métricas com o nome dado; se o nome já estiver em uso, um número é acrescentado a ele.
+	// Se o JMX não estiver disponível, as métricas continuam sendo atualizadas, apenas não são publicadas.
+	public void registra(String nomeTreinamento){
+		MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+		try {
+			for(int i = 1; nome == null; i++){
+				ObjectName candidato = new ObjectName(DOMINIO + ":type=Treinamento,name=" + nomeTreinamento + ((i == 1) ? "" : "-" + i));
+				try {
+					servidor.registerMBean(this, candidato);
+					nome = candidato;
+				} catch (InstanceAlreadyExistsException e) {
+					// tenta o próximo número
+				}
+			}
+		} catch (JMException e) {
+			System.err.println("Métricas do treinamento não publicadas via JMX: " + e.getMessage());
+		}
+	}
+
+	// Remove o MBean publicado por registra()
+	public void remove(){
+		if(nome == null)
+			return;
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(nome);
+		} catch (JMException e) {
+			// já removido
+		}
+		nome = null;
+	}
+
+
+	//************* Atualização, pela thread do treinamento *********************//
+
+	void epoca(int epoca, int tuplas, long nanos, double taxaAprendizado){
+		this.epocaAtual = epoca;
+		this.tuplasPorSegundo = (nanos > 0) ? tuplas*1e9/nanos : 0;
+		this.nanosTreinamento += nanos;
+		this.taxaAprendizado = taxaAprendizado;
+	}
+
+	void validacao(double taxaErros, double erroQuadrado, double melhorTaxaErros, int fracassosSeguidos, long nanos){
+		this.taxaErrosValidacao = taxaErros;
+		this.erroQuadradoValidacao = erroQuadrado;
+		this.melhorTaxaErrosValidacao = melhorTaxaErros;
+		this.fracassosSeguidos = fracassosSeguidos;
+		this.nanosAvaliacao += nanos;
+	}
+
+	void treinamento(double taxaErros, double erroQuadrado, long nanos){
+		this.taxaErrosTreinamento = taxaErros;
+		this.erroQuadradoTreinamento = erroQuadrado;
+		this.nanosAvaliacao += nanos;
+	}
+
+
+	//************* Atributos do MBean *********************//
+
+	public int getEpocaAtual(){
+		return epocaAtual;
+	}
+
+	public double getTuplasPorSegundo(){
+		return tuplasPorSegundo;
+	}
+
+	public double getTaxaErrosTreinamento(){
+		return taxaErrosTreinamento;
+	}
+
+	public double getErroQuadradoTreinamento(){
+		return erroQuadradoTreinamento;
+	}
+
+	public double getTaxaErrosValidacao(){
+		return taxaErrosValidacao;
+	}
+
+	public double getErroQuadradoValidacao(){
+		return erroQuadradoValidacao;
+	}
+
+	public double getMelhorTaxaErrosValidacao(){
+		return melhorTaxaErrosValidacao;
+	}
+
+	public int getFracassosSeguidos(){
+		return fracassosSeguidos;
+	}
+
+	public int getFracassosPermitidos(){
+		return fracassosPermitidos;
+	}
+
+	public double getTaxaAprendizado(){
+		return taxaAprendizado;
+	}
+
+	public long getTempoTreinamentoMs(){
+		return nanosTreinamento/1000000;
+	}
+
+	public long getTempoAvaliacaoMs(){
+		return nanosAvaliacao/1000000;
+	}
+
+	public long getHeapUsado(){
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+}
@@ -0,0 +1,21 @@
+// Atributos publicados por MetricasTreinamento via JMX (veja o comentário daquela classe)
+public interface MetricasTreinamentoMBean {
+
+	int getEpocaAtual();
+	double getTuplasPorSegundo(); // na última época
+
+	double getTaxaErrosTreinamento();
+	double getErroQuadradoTreinamento();
+	double getTaxaErrosValidacao();
+	double getErroQuadradoValidacao();
+	double getMelhorTaxaErrosValidacao();
+
+	int getFracassosSeguidos();
+	int getFracassosPermitidos();
+	double getTaxaAprendizado();
+
+	long getTempoTreinamentoMs();
+	long getTempoAvaliacaoMs();
+	long getHeapUsado(); // em bytes, de toda a JVM
+
+}
@@ -0,0 +1,189 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+public class ModeloBinario {
+
+	/*
+	 * Formato binário para guardar redes MLP treinadas, bem mais rápido de ler do que o texto de Rede.toString().
+	 * Todos os números são gravados em little-endian, na seguinte ordem:
+	 *
+	 *   cabeçalho (8 inteiros de 4 bytes): assinatura "MLPB", versão do formato, neurônios na camada de entrada,
+	 *                                      neurônios na camada escondida, neurônios na camada de saída,
+	 *                                      função de ativação da camada escondida, função de ativação da camada de saída
+	 *                                      (códigos de Ativacao) e um inteiro reservado, sempre 0, que mantém os pesos
+	 *                                      alinhados em 8 bytes
+	 *   pesos (doubles de 8 bytes):        pesos da camada escondida (linha a linha), vieses da camada escondida,
+	 *                                      pesos da camada de saída (linha a linha), vieses da camada de saída
+	 *   verificação (1 long de 8 bytes):   CRC32 de todos os bytes de pesos
+	 *
+	 * A leitura mapeia o arquivo em memória, de modo que os pesos podem ser usados diretamente no arquivo mapeado
+	 * ou copiados em bloco para uma nova Rede.
+	 */
+
+	static final int ASSINATURA = 0x42504C4D; // "MLPB" lido em little-endian
+	static final int VERSAO = 1;
+	static final int TAMANHO_CABECALHO = 8*4;
+
+	int entradas; // neurônios na camada de entrada
+	int escondida; // neurônios na camada escondida
+	int saida; // neurônios na camada de saída
+	int ativacaoEscondida; // código da função de ativação de cada camada (veja Ativacao)
+	int ativacaoSaida;
+
+	// região do arquivo mapeado que contém os pesos, somente para leitura
+	private DoubleBuffer pesos;
+
+
+	//************* Gravação *********************//
+
+	// Grava a rede dada no caminho especificado
+	public static void grava(Rede mlp, String caminho) throws IOException {
+
+		ByteBuffer buffer = codifica(mlp);
+		RandomAccessFile arquivo = new RandomAccessFile(caminho, "rw");
+		try {
+			FileChannel canal = arquivo.getChannel();
+			arquivo.setLength(0);
+			while(buffer.hasRemaining())
+				canal.write(buffer);
+		} finally {
+			arquivo.close();
+		}
+	}
+
+	// Monta em memória o conteúdo completo do arquivo da rede dada, pronto para ser escrito a partir da posição 0
+	static ByteBuffer codifica(Rede mlp){
+
+		Camada esc = mlp.camadaEscondida;
+		Camada sai = mlp.camadaSaida;
+
+		int quantidade = esc.peso.length + esc.vies.length + sai.peso.length + sai.vies.length;
+		ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_CABECALHO + quantidade*8 + 8).order(ByteOrder.LITTLE_ENDIAN);
+
+		// cabeçalho
+		buffer.putInt(ASSINATURA);
+		buffer.putInt(VERSAO);
+		buffer.putInt(esc.entradas);
+		buffer.putInt(esc.neuronios);
+		buffer.putInt(sai.neuronios);
+		buffer.putInt(esc.funcao.codigo);
+		buffer.putInt(sai.funcao.codigo);
+		buffer.putInt(0);
+
+		// pesos, em cópias de bloco
+		DoubleBuffer blocos = buffer.asDoubleBuffer();
+		blocos.put(esc.peso).put(esc.vies).put(sai.peso).put(sai.vies);
+		buffer.position(TAMANHO_CABECALHO + quantidade*8);
+
+		// verificação
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), TAMANHO_CABECALHO, quantidade*8);
+		buffer.putLong(crc.getValue());
+
+		buffer.flip();
+		return buffer;
+	}
+
+
+	//************* Leitura *********************//
+
+	// Mapeia o arquivo em memória e confere o cabeçalho e o CRC32 antes de liberar os pesos para uso
+	public static ModeloBinario abre(String caminho) throws IOException {
+
+		RandomAccessFile arquivo = new RandomAccessFile(caminho, "r");
+		MappedByteBuffer mapa;
+		try {
+			FileChannel canal = arquivo.getChannel();
+			mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+		} finally {
+			// o mapeamento continua válido depois que o arquivo é fechado
+			arquivo.close();
+		}
+		return abre(mapa, caminho);
+	}
+
+	// Confere e interpreta o conteúdo de um arquivo de rede que já está em memória, do início ao fim do buffer.
+	// "caminho" só é usado nas mensagens de erro.
+	static ModeloBinario abre(ByteBuffer conteudo, String caminho) throws IOException {
+
+		ByteBuffer mapa = conteudo.slice().order(ByteOrder.LITTLE_ENDIAN);
+
+		if(mapa.capacity() < TAMANHO_CABECALHO + 8 || mapa.getInt(0) != ASSINATURA)
+			throw new IOException(caminho + " não é um arquivo de rede MLP");
+		if(mapa.getInt(4) != VERSAO)
+			throw new IOException(caminho + ": versão de formato " + mapa.getInt(4) + " não suportada");
+
+		ModeloBinario modelo = new ModeloBinario();
+		modelo.entradas = mapa.getInt(8);
+		modelo.escondida = mapa.getInt(12);
+		modelo.saida = mapa.getInt(16);
+		modelo.ativacaoEscondida = mapa.getInt(20);
+		modelo.ativacaoSaida = mapa.getInt(24);
+
+		int quantidade = modelo.escondida*modelo.entradas + modelo.escondida + modelo.saida*modelo.escondida + modelo.saida;
+		if(mapa.capacity() != TAMANHO_CABECALHO + quantidade*8 + 8)
+			throw new IOException(caminho + ": tamanho do arquivo não corresponde às dimensões da rede");
+
+		// confere o CRC32 da região de pesos
+		ByteBuffer regiao = mapa.duplicate();
+		regiao.position(TAMANHO_CABECALHO).limit(TAMANHO_CABECALHO + quantidade*8);
+		CRC32 crc = new CRC32();
+		crc.update(regiao);
+		if(crc.getValue() != mapa.getLong(TAMANHO_CABECALHO + quantidade*8))
+			throw new IOException(caminho + ": CRC32 dos pesos não confere, arquivo corrompido");
+
+		regiao.position(TAMANHO_CABECALHO);
+		modelo.pesos = regiao.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+		return modelo;
+	}
+
+	// Lê uma rede gravada por grava()
+	public static Rede carrega(String caminho) throws IOException {
+		return abre(caminho).paraRede();
+	}
+
+	// Os métodos a seguir dão acesso direto a cada bloco de pesos no arquivo mapeado, sem cópia
+
+	public DoubleBuffer pesosEscondida(){
+		return bloco(0, escondida*entradas);
+	}
+
+	public DoubleBuffer viesEscondida(){
+		return bloco(escondida*entradas, escondida);
+	}
+
+	public DoubleBuffer pesosSaida(){
+		return bloco(escondida*entradas + escondida, saida*escondida);
+	}
+
+	public DoubleBuffer viesSaida(){
+		return bloco(escondida*entradas + escondida + saida*escondida, saida);
+	}
+
+	private DoubleBuffer bloco(int inicio, int tamanho){
+		DoubleBuffer b = pesos.duplicate();
+		b.position(inicio).limit(inicio + tamanho);
+		return b.slice();
+	}
+
+	// Cria uma nova Rede com os pesos do arquivo, copiados em bloco
+	public Rede paraRede(){
+
+		Rede mlp = new Rede(entradas, escondida, saida, false);
+		mlp.setAtivacao(Ativacao.porCodigo(ativacaoEscondida), Ativacao.porCodigo(ativacaoSaida));
+
+		pesosEscondida().get(mlp.camadaEscondida.peso);
+		viesEscondida().get(mlp.camadaEscondida.vies);
+		pesosSaida().get(mlp.camadaSaida.peso);
+		viesSaida().get(mlp.camadaSaida.vies);
+
+		return mlp;
+	}
+
+}
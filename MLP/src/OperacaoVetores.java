@@ -0,0 +1,75 @@
+public abstract class OperacaoVetores {
+
+	/*
+	 * Operações básicas de álgebra linear usadas no feedForward e na backpropagation da rede MLP:
+	 * produto escalar, "axpy" (y += alfa*x), produto externo e produto entre matrizes.
+	 * Os vetores são trechos de arrays maiores, indicados por uma posição inicial e um comprimento,
+	 * de forma que as linhas de pesos de uma Camada podem ser usadas diretamente, sem cópia.
+	 *
+	 * Há duas implementações:
+	 *   OperacaoVetoresEscalar: laços comuns, disponível em qualquer versão do Java. É a referência,
+	 *                           com as somas feitas sempre na mesma ordem.
+	 *   OperacaoVetoresSIMD:    usa a Vector API (jdk.incubator.vector) para processar vários doubles por instrução.
+	 *                           Fica na pasta src-vetorial e só é usada quando foi compilada e a JVM foi iniciada
+	 *                           com "--add-modules jdk.incubator.vector". Os produtos escalares somam os termos
+	 *                           em outra ordem, então os resultados podem diferir da versão escalar na última casa decimal.
+	 *
+	 * A implementação é escolhida uma única vez, ao carregar esta classe, pela propriedade de sistema "mlp.vetores":
+	 *   escalar: sempre a versão escalar
+	 *   simd:    sempre a versão SIMD; se ela não puder ser carregada, a inicialização falha com o motivo
+	 *   ausente: a versão SIMD quando foi compilada e a escalar quando não foi; se ela foi compilada mas não pôde
+	 *            ser carregada (por exemplo, sem o módulo), o motivo é informado em System.err
+	 */
+
+	// implementação usada por toda a rede
+	public static final OperacaoVetores ATUAL = escolhe();
+
+	private static OperacaoVetores escolhe(){
+		String pedida = System.getProperty("mlp.vetores", "");
+		if(pedida.equals("escalar"))
+			return new OperacaoVetoresEscalar();
+		if(!pedida.equals("simd") && !pedida.isEmpty())
+			throw new IllegalArgumentException("mlp.vetores deve ser escalar ou simd: " + pedida);
+
+		try {
+			return (OperacaoVetores)Class.forName("OperacaoVetoresSIMD").getDeclaredConstructor().newInstance();
+		} catch (ClassNotFoundException e) {
+			// a versão SIMD não foi compilada (veja src-vetorial no README)
+			if(pedida.equals("simd"))
+				throw new IllegalStateException("mlp.vetores=simd, mas OperacaoVetoresSIMD não foi compilada", e);
+		} catch (ReflectiveOperationException | LinkageError e) {
+			// compilada, mas não carregada: em geral, a JVM não foi iniciada com --add-modules jdk.incubator.vector
+			if(pedida.equals("simd"))
+				throw new IllegalStateException("mlp.vetores=simd, mas OperacaoVetoresSIMD não pôde ser carregada", e);
+			System.err.println("OperacaoVetoresSIMD não pôde ser carregada (" + e + "); usando a versão escalar."
+					+ " Inicie a JVM com --add-modules jdk.incubator.vector, ou use -Dmlp.vetores=escalar.");
+		}
+		return new OperacaoVetoresEscalar();
+	}
+
+	// nome da implementação, para registro
+	public abstract String nome();
+
+	// Retorna a soma de a[ia+i]*b[ib+i] para i em [0, n)
+	public abstract double produtoEscalar(double[] a, int ia, double[] b, int ib, int n);
+
+	// Soma a y[iy+i] o valor alfa*x[ix+i], para i em [0, n)
+	public abstract void axpy(double alfa, double[] x, int ix, double[] y, int iy, int n);
+
+	// Acumula na matriz m (linhas x n, linha a linha) o produto externo a·bᵀ:
+	// m[r*n + i] += a[ia+r]*b[ib+i]
+	public void externo(double[] a, int ia, int linhas, double[] b, int ib, int n, double[] m){
+		for(int r = 0; r < linhas; r++)
+			axpy(a[ia + r], b, ib, m, r*n, n);
+	}
+
+	// Produto entre matrizes guardadas linha a linha: c = a · bᵀ
+	// "a" tem "linhas" linhas de comprimento n, "b" tem "colunas" linhas de comprimento n
+	// e "c" recebe "linhas" linhas de comprimento "colunas"
+	public void produtoMatriz(double[] a, int linhas, int n, double[] b, int colunas, double[] c){
+		for(int r = 0; r < linhas; r++)
+			for(int j = 0; j < colunas; j++)
+				c[r*colunas + j] = produtoEscalar(a, r*n, b, j*n, n);
+	}
+
+}
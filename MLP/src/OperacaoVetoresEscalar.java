@@ -0,0 +1,58 @@
+public class OperacaoVetoresEscalar extends OperacaoVetores {
+
+	/*
+	 * Implementação de OperacaoVetores com laços comuns, usada quando a Vector API não está disponível.
+	 * Cada produto escalar soma os termos em sequência, na mesma ordem usada desde as primeiras versões da rede.
+	 */
+
+	public String nome(){
+		return "escalar";
+	}
+
+	public double produtoEscalar(double[] a, int ia, double[] b, int ib, int n){
+		double soma = 0;
+		for(int i = 0; i < n; i++)
+			soma += a[ia + i]*b[ib + i];
+		return soma;
+	}
+
+	public void axpy(double alfa, double[] x, int ix, double[] y, int iy, int n){
+		for(int i = 0; i < n; i++)
+			y[iy + i] += alfa*x[ix + i];
+	}
+
+	// As linhas de "a" são processadas de quatro em quatro: cada linha de "b" lida da memória é usada quatro vezes.
+	// A ordem das somas de cada elemento é a mesma de produtoEscalar, então os resultados são idênticos.
+	public void produtoMatriz(double[] a, int linhas, int n, double[] b, int colunas, double[] c){
+
+		int r = 0;
+		for(; r + 4 <= linhas; r += 4){
+			int a0 = r*n, a1 = a0 + n, a2 = a1 + n, a3 = a2 + n;
+			int c0 = r*colunas, c1 = c0 + colunas, c2 = c1 + colunas, c3 = c2 + colunas;
+			int base = 0;
+
+			for(int j = 0; j < colunas; j++){
+				double soma0 = 0, soma1 = 0, soma2 = 0, soma3 = 0;
+				for(int i = 0; i < n; i++){
+					double w = b[base + i];
+					soma0 += a[a0 + i]*w;
+					soma1 += a[a1 + i]*w;
+					soma2 += a[a2 + i]*w;
+					soma3 += a[a3 + i]*w;
+				}
+
+				c[c0 + j] = soma0;
+				c[c1 + j] = soma1;
+				c[c2 + j] = soma2;
+				c[c3 + j] = soma3;
+				base += n;
+			}
+		}
+
+		// linhas restantes, uma a uma
+		for(; r < linhas; r++)
+			for(int j = 0; j < colunas; j++)
+				c[r*colunas + j] = produtoEscalar(a, r*n, b, j*n, n);
+	}
+
+}
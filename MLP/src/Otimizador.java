@@ -0,0 +1,198 @@
+public abstract class Otimizador {
+
+	/*
+	 * Regras de atualização dos pesos da rede MLP a partir dos gradientes acumulados em um EspacoTrabalho.
+	 * Os gradientes do espaço de trabalho já apontam na direção que reduz o erro (peso += taxa*gradiente
+	 * é a descida de gradiente comum), e todas as regras abaixo seguem essa mesma convenção de sinal.
+	 *
+	 * Os parâmetros da rede são tratados em quatro blocos: pesos e vieses da camada escondida, pesos e vieses
+	 * da camada de saída. O estado de cada regra (velocidades, médias móveis) é guardado em arrays planos,
+	 * um por bloco, com a mesma organização dos arrays de Camada, e é criado na primeira atualização.
+	 */
+
+	static final int PESO_ESCONDIDA = 0;
+	static final int VIES_ESCONDIDA = 1;
+	static final int PESO_SAIDA = 2;
+	static final int VIES_SAIDA = 3;
+
+	int passos; // quantidade de atualizações já feitas
+
+	// Nomes das regras pelo código gravado nos pontos de controle (veja EstadoTreinamento);
+	// o código 0 indica um treinamento sem otimizador
+	static final String[] NOMES = { "nenhum", "sgd", "momentum", "nesterov", "rmsprop", "adam" };
+
+
+	// Retorna uma nova instância da regra com o nome dado na linha de comando, com os hiperparâmetros usuais
+	public static Otimizador porNome(String nome){
+		if(nome.equals("sgd"))
+			return new SGD();
+		if(nome.equals("momentum"))
+			return new Momentum(0.9, false);
+		if(nome.equals("nesterov"))
+			return new Momentum(0.9, true);
+		if(nome.equals("rmsprop"))
+			return new RMSProp(0.9, 1e-8);
+		if(nome.equals("adam"))
+			return new Adam(0.9, 0.999, 1e-8);
+		throw new IllegalArgumentException("Otimizador desconhecido: " + nome);
+	}
+
+	// Código da regra dada (0 para nenhuma), como em NOMES
+	static int codigo(Otimizador regra){
+		return (regra == null) ? 0 : regra.codigo();
+	}
+
+	abstract int codigo();
+
+	// Atualiza todos os pesos da rede com os gradientes acumulados em "ws".
+	// "escala" multiplica cada gradiente antes do uso (1/linhas, para usar a média de um lote).
+	public void atualiza(Rede mlp, EspacoTrabalho ws, double taxa, double escala){
+		passos++;
+		atualiza(PESO_SAIDA, mlp.camadaSaida.peso, ws.gradPesoSaida, taxa, escala);
+		atualiza(VIES_SAIDA, mlp.camadaSaida.vies, ws.gradViesSaida, taxa, escala);
+		atualiza(PESO_ESCONDIDA, mlp.camadaEscondida.peso, ws.gradPesoEscondida, taxa, escala);
+		atualiza(VIES_ESCONDIDA, mlp.camadaEscondida.vies, ws.gradViesEscondida, taxa, escala);
+	}
+
+	// Atualiza um bloco de parâmetros a partir do seu gradiente
+	abstract void atualiza(int bloco, double[] param, double[] grad, double taxa, double escala);
+
+	// Arrays de estado da regra, cada um com os quatro blocos (que podem ainda não ter sido criados),
+	// sempre na mesma ordem; usados para gravar e restaurar pontos de controle do treinamento
+	double[][][] estados(){
+		return new double[0][][];
+	}
+
+	// Retorna o array de estado do bloco dado, criando-o zerado na primeira vez
+	static double[] estado(double[][] estados, int bloco, int tamanho){
+		if(estados[bloco] == null)
+			estados[bloco] = new double[tamanho];
+		return estados[bloco];
+	}
+
+
+	//************* Regras de atualização *********************//
+
+	// Descida de gradiente simples: param += taxa*g
+	static class SGD extends Otimizador {
+
+		int codigo(){
+			return 1;
+		}
+
+		void atualiza(int bloco, double[] param, double[] grad, double taxa, double escala){
+			Camada.op.axpy(taxa*escala, grad, 0, param, 0, param.length);
+		}
+	}
+
+	/*
+	 * Momentum: a velocidade acumula os passos anteriores, v = mu*v + taxa*g, e param += v.
+	 * Na versão de Nesterov, o gradiente é tratado como se tivesse sido calculado no ponto para onde
+	 * a velocidade levaria os pesos, o que equivale a param += -mu*v_anterior + (1+mu)*v.
+	 */
+	static class Momentum extends Otimizador {
+
+		double mu;
+		boolean nesterov;
+		double[][] velocidade = new double[4][];
+
+		Momentum(double mu, boolean nesterov){
+			this.mu = mu;
+			this.nesterov = nesterov;
+		}
+
+		int codigo(){
+			return nesterov ? 3 : 2;
+		}
+
+		double[][][] estados(){
+			return new double[][][]{ velocidade };
+		}
+
+		void atualiza(int bloco, double[] param, double[] grad, double taxa, double escala){
+			double[] v = estado(velocidade, bloco, param.length);
+			double t = taxa*escala;
+
+			for(int i = 0; i < param.length; i++){
+				double anterior = v[i];
+				v[i] = mu*v[i] + t*grad[i];
+
+				if(nesterov)
+					param[i] += -mu*anterior + (1 + mu)*v[i];
+				else
+					param[i] += v[i];
+			}
+		}
+	}
+
+	// RMSProp: cada peso tem sua taxa dividida pela raiz da média móvel dos quadrados dos seus gradientes
+	static class RMSProp extends Otimizador {
+
+		double rho, epsilon;
+		double[][] mediaQuadrados = new double[4][];
+
+		RMSProp(double rho, double epsilon){
+			this.rho = rho;
+			this.epsilon = epsilon;
+		}
+
+		int codigo(){
+			return 4;
+		}
+
+		double[][][] estados(){
+			return new double[][][]{ mediaQuadrados };
+		}
+
+		void atualiza(int bloco, double[] param, double[] grad, double taxa, double escala){
+			double[] s = estado(mediaQuadrados, bloco, param.length);
+
+			for(int i = 0; i < param.length; i++){
+				double g = grad[i]*escala;
+				s[i] = rho*s[i] + (1 - rho)*g*g;
+				param[i] += taxa*g/(Math.sqrt(s[i]) + epsilon);
+			}
+		}
+	}
+
+	// Adam: médias móveis do gradiente e do seu quadrado, com correção do viés inicial das duas médias
+	static class Adam extends Otimizador {
+
+		double beta1, beta2, epsilon;
+		double[][] media = new double[4][];
+		double[][] mediaQuadrados = new double[4][];
+
+		Adam(double beta1, double beta2, double epsilon){
+			this.beta1 = beta1;
+			this.beta2 = beta2;
+			this.epsilon = epsilon;
+		}
+
+		int codigo(){
+			return 5;
+		}
+
+		double[][][] estados(){
+			return new double[][][]{ media, mediaQuadrados };
+		}
+
+		void atualiza(int bloco, double[] param, double[] grad, double taxa, double escala){
+			double[] m = estado(media, bloco, param.length);
+			double[] v = estado(mediaQuadrados, bloco, param.length);
+
+			// a correção de viés depende apenas da quantidade de passos, então é calculada uma vez por bloco
+			double correcao1 = 1 - Math.pow(beta1, passos);
+			double correcao2 = 1 - Math.pow(beta2, passos);
+			double passo = taxa*Math.sqrt(correcao2)/correcao1;
+			double epsilonCorrigido = epsilon*Math.sqrt(correcao2);
+
+			for(int i = 0; i < param.length; i++){
+				double g = grad[i]*escala;
+				m[i] = beta1*m[i] + (1 - beta1)*g;
+				v[i] = beta2*v[i] + (1 - beta2)*g*g;
+				param[i] += passo*m[i]/(Math.sqrt(v[i]) + epsilonCorrigido);
+			}
+		}
+	}
+
+}
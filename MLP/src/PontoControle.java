@@ -0,0 +1,116 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+public class PontoControle implements Runnable {
+
+	/*
+	 * Gravação periódica de pontos de controle (checkpoints) durante o treinamento.
+	 * Ao final de cada época, o treinamento copia o seu estado completo (pesos, melhor rede, contagens, agenda e
+	 * otimizador, veja EstadoTreinamento) para um instantâneo e o entrega a esta classe por uma única troca atômica;
+	 * o instantâneo nunca mais é alterado pelo treinamento, de modo que cada arquivo gravado contém o estado de
+	 * uma única época. Uma thread própria grava o instantâneo mais recente, no máximo uma vez a cada "intervalo"
+	 * milissegundos, e mantém apenas os últimos "manter" arquivos. O treinamento nunca espera pela gravação:
+	 * se a thread ainda não gravou o instantâneo anterior, ele é simplesmente substituído pelo novo.
+	 * Qualquer um dos arquivos gravados pode ser usado para continuar o treinamento (Rede.Treinamento.retoma()).
+	 *
+	 * Os instantâneos são reaproveitados: depois de gravado, um instantâneo volta para "livre" e é usado
+	 * na próxima entrega, de modo que, em regime, nenhuma rede é alocada por época.
+	 */
+
+	private final String prefixo; // caminho dos arquivos, sem a época e a extensão
+	private final int manter;
+	private final long intervalo;
+
+	// instantâneo entregue pelo treinamento e ainda não gravado
+	private final AtomicReference<EstadoTreinamento> pendente = new AtomicReference<EstadoTreinamento>();
+	// instantâneo já gravado, disponível para a próxima entrega
+	private final AtomicReference<EstadoTreinamento> livre = new AtomicReference<EstadoTreinamento>();
+
+	private final Thread thread;
+	private volatile boolean encerrado;
+
+	// arquivos gravados, do mais antigo para o mais recente; usado somente pela thread de gravação
+	private final ArrayDeque<String> gravados = new ArrayDeque<String>();
+
+
+	// Os arquivos serão gravados como prefixo + "_eN.mlpc", sendo N a época do instantâneo
+	public PontoControle(String prefixo, int manter, long intervalo){
+		this.prefixo = prefixo;
+		this.manter = Math.max(1, manter);
+		this.intervalo = intervalo;
+
+		this.thread = new Thread(this, "ponto-controle");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	// Chamado pelo treinamento ao final de uma época, quando nenhuma thread está alterando os pesos.
+	// Copia o estado do treinamento e entrega a cópia à thread de gravação, sem esperar pelo disco.
+	public void entrega(Rede.Treinamento treinamento, int epoca, int fracassosSeguidos, double melhorResultado){
+		EstadoTreinamento instantaneo = livre.getAndSet(null);
+		if(instantaneo == null)
+			instantaneo = new EstadoTreinamento();
+		instantaneo.captura(treinamento, epoca, fracassosSeguidos, melhorResultado);
+
+		// um instantâneo anterior que ainda não foi gravado perde a vez e volta a ficar livre
+		EstadoTreinamento anterior = pendente.getAndSet(instantaneo);
+		if(anterior != null)
+			livre.set(anterior);
+		else
+			LockSupport.unpark(thread);
+	}
+
+	// Grava o último instantâneo entregue, se houver, e encerra a thread de gravação
+	public void encerra(){
+		encerrado = true;
+		LockSupport.unpark(thread);
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public void run(){
+		while(true){
+			// respeita o intervalo mínimo desde a última gravação e depois espera por um instantâneo
+			long limite = System.nanoTime() + intervalo*1000000L;
+			while(!encerrado && System.nanoTime() < limite)
+				LockSupport.parkNanos(this, limite - System.nanoTime());
+			while(!encerrado && pendente.get() == null)
+				LockSupport.park(this);
+
+			EstadoTreinamento instantaneo = pendente.getAndSet(null);
+			if(instantaneo != null){
+				grava(instantaneo);
+				livre.set(instantaneo);
+			}
+
+			if(encerrado)
+				return;
+		}
+	}
+
+	// Grava o instantâneo em um arquivo temporário, renomeia-o e apaga os arquivos que saíram da janela
+	private void grava(EstadoTreinamento instantaneo){
+		String caminho = prefixo + "_e" + instantaneo.epocas + ".mlpc";
+		try {
+			instantaneo.grava(caminho + ".tmp");
+			Files.move(Paths.get(caminho + ".tmp"), Paths.get(caminho), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+
+		gravados.addLast(caminho);
+		while(gravados.size() > manter)
+			new File(gravados.removeFirst()).delete();
+	}
+
+}
@@ -10,6 +10,12 @@ import java.util.LinkedList;
 
 public class PosProcessamento {
 	
+	/*
+	 * Acumula os resultados de teste de várias redes treinadas com a mesma estrutura e grava seus sumários.
+	 * Uma mesma instância pode ser compartilhada por treinamentos executados em paralelo:
+	 * todos os acessos às listas são feitos sob o monitor da instância.
+	 */
+	
 	LinkedList<int[][]> matrizes;
 	
 	// 0 é a acurácia e 1 o erro quadrado
@@ -19,10 +25,7 @@ public class PosProcessamento {
 	double tA;
 	Date data;
 	
-	static private PosProcessamento instancia;
-	static boolean instanciado = false;
-	
-	private PosProcessamento(int nE, double tA, Date data){
+	public PosProcessamento(int nE, double tA, Date data){
 		matrizes = new LinkedList<int[][]>();
 		erros = new LinkedList<double[]>();
 		this.nE = nE;
@@ -30,38 +33,21 @@ public class PosProcessamento {
 		this.data = data;
 	}
 	
-	public static PosProcessamento getInstance(int nE, double tA, Date data){
-		if(!instanciado){
-			instancia = new PosProcessamento(nE, tA, data);
-			instanciado = true;
-		}
-		return instancia;
-	}
-	
-	public static PosProcessamento getInstance(){
-		return instancia;
-	}
-	
-	public static void clear(){
-		instanciado = false;
-		instancia = null;
-	}
-	
-	public void addMatriz(int[][] nova){
+	public synchronized void addMatriz(int[][] nova){
 		matrizes.add(nova);
 	}
 	
-	public void addErro(double[] novo){
+	public synchronized void addErro(double[] novo){
 		erros.add(novo);
 	}
 	
-	public int getSize(){
+	public synchronized int getSize(){
 		return matrizes.size();
 	}
 	
 	
 	// encontra o desvio padrão da matriz
-	public double[][] matrizDesvio(){
+	public synchronized double[][] matrizDesvio(){
 		
 		Iterator<int[][]> it = matrizes.iterator();
 		
@@ -91,7 +77,7 @@ public class PosProcessamento {
 	
 	
 	// encontra a mádia de cada elemento da matriz
-	private double[][] matrizMedia(){
+	private synchronized double[][] matrizMedia(){
 		
 		double[][] medias = new double[10][10];
 		
@@ -111,7 +97,7 @@ public class PosProcessamento {
 	}
 	
 	// retorna no índice 0 a acurácia média e no índice 1 o erro quadrado médio
-	public double[] mediaErro(){
+	public synchronized double[] mediaErro(){
 		double[] medias = new double[2];
 		
 		Iterator<double[]> it = erros.iterator();
@@ -124,7 +110,7 @@ public class PosProcessamento {
 		return medias;
 	}
 	
-	public void gravaArq(){
+	public synchronized void gravaArq(){
 		DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
 		
 		// ********** salva a matriz de confusão ************ //
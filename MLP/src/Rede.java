@@ -1,9 +1,22 @@
 ﻿import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadFactory;
 
 public class Rede {
 
@@ -18,8 +31,9 @@ public class Rede {
 	//************* Formação da instância de rede neural *********************//
 	// Vale notar que como os neurônios da primeira camada apenas servem para receber dados, eles não precisam ser instanciados
 	
-	Neuronio[] camadaEscondida;
-	Neuronio[] camadaSaida;
+	// Cada camada guarda os pesos de todos os seus neurônios em um único bloco contíguo de memória
+	Camada camadaEscondida;
+	Camada camadaSaida;
 
 	// MODO DE EXECUÇÃO:
 	// Construtor determina quantos neuronios deverão ser criados a partir do comprimento dos arrays de pesos recebidos.
@@ -32,57 +46,72 @@ public class Rede {
 		 *  precisa armazenar e também o número de neurônios na camada de entrada.
 		 */
 
-		// reserva espaço nos arrays para todos os neurônios que serão criados a seguir
-		this.camadaEscondida = new Neuronio[camadaEscondida.length];
-		this.camadaSaida = new Neuronio[camadaSaida.length];
+		// reserva espaço para todos os pesos das duas camadas
+		this.camadaEscondida = new Camada(camadaEscondida.length, camadaEscondida[0].length);
+		this.camadaSaida = new Camada(camadaSaida.length, camadaSaida[0].length);
 		
-		// Os dois loops a seguir criam os neurônios da camada escondida e inserem os pesos dados
+		// Os dois loops a seguir copiam os pesos dados para a camada escondida
 		for(int p = 0; p < camadaEscondida.length; p++){
-			// este primeiro loop tem suas iterações controladas pelo número de neurônios na camada de entrada
-			this.camadaEscondida[p] = new Neuronio(camadaEscondida[0].length); // cada neurônio é criado com a informação de quantos neurônios existem na camada de entrada
-			this.camadaEscondida[p].setVies(viesEscondida[p]);
+			// este primeiro loop tem suas iterações controladas pelo número de neurônios na camada escondida
+			this.camadaEscondida.setVies(p, viesEscondida[p]);
 
 			for(int k = 0; k < camadaEscondida[0].length; k++)
 				// este segundo loop tem suas iterações controladas pela quantidade de pesos que devem ser configurados
-				this.camadaEscondida[p].setPeso(k, camadaEscondida[p][k]);
+				this.camadaEscondida.peso[p*camadaEscondida[0].length + k] = camadaEscondida[p][k];
 		}
 
-		// Os dois loops a seguir criam os neurônios da camada de saída
+		// Os dois loops a seguir copiam os pesos dados para a camada de saída
 		for(int x = 0; x < camadaSaida.length; x++){
 			// este primeiro loop tem suas iterações controladas pelo número de neurônios na camada de saída
-			this.camadaSaida[x] = new Neuronio(camadaSaida[0].length); // cada neurônio é criado com a informação de quantos neurônios existem na camada escondida
-			this.camadaSaida[x].setVies(viesSaida[x]);
+			this.camadaSaida.setVies(x, viesSaida[x]);
 
 			for(int z = 0; z < camadaSaida[0].length; z++)
 				// este segundo loop tem suas iterações controladas pela quantidade de pesos que devem ser configurados
-				this.camadaSaida[x].setPeso(z, camadaSaida[x][z]);
+				this.camadaSaida.peso[x*camadaSaida[0].length + z] = camadaSaida[x][z];
 		}
 
 	}
 	
+	// Construtor de cópia: cria uma nova rede com as mesmas dimensões e os mesmos pesos da rede dada
+	public Rede(Rede original){
+		this.camadaEscondida = new Camada(original.camadaEscondida);
+		this.camadaSaida = new Camada(original.camadaSaida);
+	}
+	
 	// MODO DE TREINAMENTO
 	// Esse construtor será invocado se a rede for iniciada em modo de treinamento
-	// A definição de pesos será delegada para a classe Neuronio,
+	// A definição de pesos será delegada para a classe Camada,
 	// mas cabe a este construtor decidir se o usuário quer pesos 0 ou aleatórios.
 	public Rede(int camadaEntrada, int camadaEscondida, int camadaSaida, boolean random){
+		this(camadaEntrada, camadaEscondida, camadaSaida, random, new Random());
+	}
+	
+	// Define a função de ativação de todos os neurônios da rede
+	public void setAtivacao(Ativacao funcao){
+		setAtivacao(funcao, funcao);
+	}
+	
+	// Define funções de ativação diferentes para a camada escondida e para a camada de saída.
+	// Os sinais de treinamento são sempre os da função da camada de saída.
+	public void setAtivacao(Ativacao escondida, Ativacao saida){
+		camadaEscondida.funcao = escondida;
+		camadaSaida.funcao = saida;
+	}
+	
+	// Os pesos aleatórios são sorteados pelo gerador dado. Com a mesma semente, a mesma rede inicial é criada.
+	public Rede(int camadaEntrada, int camadaEscondida, int camadaSaida, boolean random, Random gerador){
 		
-		// reserva espaço nos arrays para todos os neurônios que serão criados a seguir
-		this.camadaEscondida = new Neuronio[camadaEscondida];
-		this.camadaSaida = new Neuronio[camadaSaida];
+		// reserva espaço para todos os pesos das duas camadas
+		this.camadaEscondida = new Camada(camadaEscondida, camadaEntrada);
+		this.camadaSaida = new Camada(camadaSaida, camadaEscondida);
 		
-		// cria os neurônios escondidos
-		for(int j = 0; j < camadaEscondida; j++){
-			this.camadaEscondida[j] = new Neuronio(camadaEntrada);
-			if(random) this.camadaEscondida[j].reset();
-			else this.camadaEscondida[j].zera();
-		}
+		// prepara os pesos da camada escondida
+		if(random) this.camadaEscondida.reset(gerador);
+		else this.camadaEscondida.zera();
 		
-		// cria os neurônios de saída
-		for(int k = 0; k < camadaSaida; k++){
-			this.camadaSaida[k] = new Neuronio(camadaEscondida);
-			if(random) this.camadaSaida[k].reset();
-			else this.camadaSaida[k].zera();
-		}
+		// prepara os pesos da camada de saída
+		if(random) this.camadaSaida.reset(gerador);
+		else this.camadaSaida.zera();
 		
 	}
 
@@ -96,11 +125,11 @@ public class Rede {
 		double hash = 1;
 
 		// concatena todos os hashs MD5 dos Neurônios desta Rede e gera um novo MD5
-		for(int i = 0; i <  camadaEscondida.length; i++)
-			hash *= camadaEscondida[i].hash();
+		for(int i = 0; i <  camadaEscondida.neuronios; i++)
+			hash *= camadaEscondida.hash(i);
 
-		for(int i = 0; i <  camadaSaida.length; i++)
-			hash += camadaSaida[i].hash();
+		for(int i = 0; i <  camadaSaida.neuronios; i++)
+			hash += camadaSaida.hash(i);
 		
 		return Double.toString(hash);
 
@@ -114,14 +143,14 @@ public class Rede {
 	class Treinamento {
 
 		// Variável que armazena as linhas de dados entregues a esta classe para o treinamento.
-		Tupla[] treinamento;
-		Tupla[] validacao;
-		Tupla[] teste;
+		ConjuntoDados treinamento;
+		ConjuntoDados validacao;
+		ConjuntoDados teste;
 		
 		// taxa de aprendizado deste treinamento
 		double aprendizado;
 		
-		// constantes usadas para definir quais dados serão usados em testes com o método "erros()"
+		// constantes usadas para definir quais dados serão usados em testes com o método "avalia()"
 		private static final int TREINAMENTO = 0;
 		private static final int VALIDACAO = 1;
 		private static final int TESTE = 2;
@@ -129,6 +158,32 @@ public class Rede {
 		// cria uma referência no tempo para ser usada na criação de arquivos de log
 		private Date date;
 		
+		// arrays auxiliares reaproveitados em todas as sessões de treinamento
+		private EspacoTrabalho espaco;
+		
+		// quantidade de tuplas em cada mini-lote; com 1, os pesos são atualizados a cada tupla
+		int tamanhoLote = 1;
+		
+		// regra de atualização dos pesos; sem otimizador, a descida de gradiente simples é aplicada diretamente
+		Otimizador otimizador;
+		
+		// agenda da taxa de aprendizado; sem agenda, a taxa inicial é usada durante todo o treinamento
+		AgendaAprendizado agenda;
+		double aprendizadoInicial;
+		
+		// pontos de controle: quantos arquivos manter (0 desliga) e o intervalo mínimo entre gravações, em milissegundos
+		int pontosControle = 0;
+		long intervaloPontosControle = 30000;
+		
+		// estado de um treinamento anterior a ser continuado por executar(); nulo para começar do zero
+		EstadoTreinamento retomada;
+		
+		// destino dos resultados de teste; pode ser compartilhado por vários treinamentos
+		PosProcessamento posProcessamento;
+		
+		// acrescentado ao nome dos arquivos gravados, para distinguir treinamentos iniciados no mesmo segundo
+		String identificador = "";
+		
 		
 		// construtor recebe todas as linhas do banco de dados 
 		public Treinamento(double[][] treinamento, int[] classeTr,	
@@ -136,38 +191,97 @@ public class Rede {
 					double[][] teste, int[] classeTe,
 					double aprendizado){
 			
-			this.treinamento = new Tupla[classeTr.length];
-			this.validacao = new Tupla[classeV.length];
-			this.teste = new Tupla[classeTe.length];
-			
-			this.aprendizado = aprendizado;
-			
-			this.date = new Date();
-			
-			// cria todas as tuplas de treinamento
-			for(int i = 0; i < classeTr.length; i++){
-				this.treinamento[i] = new Tupla(treinamento[i],classeTr[i]);
-			}
-			
-			// cria todas as tuplas de validação
-			for(int i = 0; i < classeV.length; i++){
-				this.validacao[i] = new Tupla(validacao[i],classeV[i]);
-			}
-			
-			// cria todas as tuplas de teste
-			for(int i = 0; i < classeTe.length; i++){
-				this.teste[i] = new Tupla(teste[i],classeTe[i]);
-			}
-			
+			// copia cada conjunto para um único array contíguo
+			this(new ConjuntoDados(treinamento, classeTr),
+					new ConjuntoDados(validacao, classeV),
+					new ConjuntoDados(teste, classeTe),
+					aprendizado);
 		}
 		
-		// Quando as tuplas forem contruídas externamente, o contrutor a seguir deverá ser usado.
-		public Treinamento(Tupla[] treinamento, Tupla[] validacao, Tupla[] teste, double aprendizado){
+		// Quando os conjuntos de dados forem contruídos externamente, o contrutor a seguir deverá ser usado.
+		public Treinamento(ConjuntoDados treinamento, ConjuntoDados validacao, ConjuntoDados teste, double aprendizado){
 			this.treinamento = treinamento;
 			this.validacao = validacao;
 			this.teste = teste;
 			this.aprendizado = aprendizado;
+			this.aprendizadoInicial = aprendizado;
 			this.date = new Date();
+			this.espaco = new EspacoTrabalho(Rede.this);
+		}
+
+		
+		// Define o tamanho dos mini-lotes de treinamento e prepara o espaço de trabalho correspondente.
+		// A cada lote, os gradientes de todas as suas tuplas são acumulados e os pesos são atualizados uma única vez.
+		public void setTamanhoLote(int tamanhoLote){
+			this.tamanhoLote = Math.max(1, tamanhoLote);
+			this.espaco = new EspacoTrabalho(Rede.this, this.tamanhoLote);
+		}
+		
+		// Define a regra de atualização dos pesos (veja Otimizador).
+		// Com um otimizador, os gradientes passam sempre pelo caminho de mini-lote, mesmo com lotes de uma tupla,
+		// para que o otimizador receba o gradiente completo antes de alterar os pesos.
+		public void setOtimizador(Otimizador otimizador){
+			this.otimizador = otimizador;
+			this.espaco = new EspacoTrabalho(Rede.this, this.tamanhoLote);
+		}
+		
+		// Define a agenda que altera a taxa de aprendizado a cada época (veja AgendaAprendizado)
+		public void setAgenda(AgendaAprendizado agenda){
+			this.agenda = agenda;
+		}
+		
+		// Grava periodicamente os pesos da rede durante o treinamento, mantendo os "manter" arquivos mais recentes (veja PontoControle)
+		public void setPontosControle(int manter, long intervalo){
+			this.pontosControle = manter;
+			this.intervaloPontosControle = intervalo;
+		}
+		
+		// Continua um treinamento interrompido a partir de um ponto de controle (veja EstadoTreinamento):
+		// os pesos, a taxa de aprendizado, a agenda e o otimizador são restaurados agora, e executar() retoma
+		// a contagem de épocas, os fracassos seguidos e a melhor rede de onde o treinamento parou.
+		// O otimizador e a agenda devem ser definidos antes, com os mesmos parâmetros do treinamento original.
+		public void retoma(EstadoTreinamento estado){
+			estado.restaura(this);
+			this.retomada = estado;
+		}
+		
+		// a rede treinada por este treinamento
+		Rede rede(){
+			return Rede.this;
+		}
+		
+		// indica se as épocas podem usar a sessão tupla a tupla, que corrige os pesos durante a backpropagation
+		boolean atualizacaoDireta(){
+			return tamanhoLote <= 1 && otimizador == null;
+		}
+
+		
+		// Define para onde serão enviados os resultados de teste ao final do treinamento
+		public void setPosProcessamento(PosProcessamento posProcessamento){
+			this.posProcessamento = posProcessamento;
+		}
+		
+		public void setIdentificador(String identificador){
+			this.identificador = identificador;
+		}
+		
+		// monta o nome de um arquivo de log com a estrutura da rede, a data de início e o identificador deste treinamento
+		private String nomeArquivo(String prefixo){
+			DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
+			return prefixo+"_nE"+camadaEscondida.neuronios+"_tA"+aprendizadoInicial+"__"+dateFormat.format(date)+identificador;
+		}
+		
+		// Mostra ao usuário um bloco de linhas com uma única escrita em System.out, cada linha precedida do
+		// identificador deste treinamento (por exemplo "[r2] "), para que as mensagens de repetições executadas
+		// ao mesmo tempo não se misturem
+		private void mostra(String... linhas){
+			StringBuilder texto = new StringBuilder();
+			for(String linha : linhas){
+				if(!identificador.isEmpty() && !linha.isEmpty())
+					texto.append('[').append(identificador.startsWith("_") ? identificador.substring(1) : identificador).append("] ");
+				texto.append(linha).append(System.lineSeparator());
+			}
+			System.out.print(texto);
 		}
 
 		
@@ -182,78 +296,124 @@ public class Rede {
 			int EpocasExecutadas = 0;
 			boolean haMelhora = true; // enquanto houver melhora de desempenho, o treinamento continua
 			
-			// se prepara para armazenar a a rede de melhor desempenho encontrada até o momento
+			// se prepara para armazenar a a rede de melhor desempenho encontrada até o momento;
+			// o espaço da melhor rede é reservado uma única vez e reaproveitado a cada melhora
 			double melhorResultado = Double.MAX_VALUE;
-			melhorRede = null;
+			melhorRede = Rede.this.clonar();
 			double atualAcuracia;
 			double atualErroQuad;
 			int fracassosSeguidos = 0;
+			
+			// ao retomar um treinamento, as contagens e a melhor rede continuam de onde pararam,
+			// e o primeiro intervalo só completa as épocas que faltavam até a próxima validação
+			int primeiraEpoca = 1;
+			if(retomada != null){
+				EpocasExecutadas = retomada.epocas;
+				melhorResultado = retomada.melhorResultado;
+				fracassosSeguidos = retomada.fracassosSeguidos;
+				retomada.melhorRede.copiaPara(melhorRede);
+				if(EpocasExecutadas > 0)
+					primeiraEpoca = (EpocasExecutadas - 1) % intervalo + 2;
+				retomada = null;
+			}
 
 			// prepara o controle de Log para treinamento e validação
 			Log logTreinamento = new Log();
 			Log logValidacao = new Log();
 			
-			DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
+			logTreinamento.setNomeArquivo(nomeArquivo("redesTreinamento_"));
+			logValidacao.setNomeArquivo(nomeArquivo("redesValidacao_"));
 			
-			PosProcessamento.getInstance(camadaEscondida.length,aprendizado,date);
+			// os pontos de controle recebem uma cópia dos pesos ao final de cada época e os gravam em outra thread
+			PontoControle controle = null;
+			if(pontosControle > 0)
+				controle = new PontoControle(nomeArquivo("pontoControle_"), pontosControle, intervaloPontosControle);
 			
-			logTreinamento.setNomeArquivo("redesTreinamento_"+"_nE"+camadaEscondida.length+"_tA"+aprendizado+"__"+dateFormat.format(this.date));
-			logValidacao.setNomeArquivo("redesValidacao_"+"_nE"+camadaEscondida.length+"_tA"+aprendizado+"__"+dateFormat.format(this.date));
+			// métricas ao vivo deste treinamento, publicadas via JMX (veja MetricasTreinamento)
+			MetricasTreinamento metricas = new MetricasTreinamento(fracassos);
+			metricas.registra(nomeArquivo("treinamento_"));
+			long inicio;
 			
 			
-			// while determina quando a melhoria não é mais suficiente para prosseguir o treinamento
-			while(haMelhora) {
+			// a thread dos pontos de controle e o MBean das métricas são encerrados mesmo que o treinamento falhe,
+			// já que várias repetições podem compartilhar a mesma JVM
+			try {
+				// while determina quando a melhoria não é mais suficiente para prosseguir o treinamento
+				while(haMelhora) {
 					
-					// Loop das épocas de treinamento
-					for(int epoca = 1; epoca <= intervalo; epoca++){
-						// Loop das tuplas em cada época
-						for(int linhaDeDados = 0; linhaDeDados < treinamento.length; linhaDeDados++){
-							sessao(treinamento[linhaDeDados]);
-						}
-						EpocasExecutadas++;
-					} // encerra loop das épocas
+						// Loop das épocas de treinamento
+						for(int epoca = primeiraEpoca; epoca <= intervalo; epoca++){
+							// uma repetição cancelada (veja Repeticoes) para entre duas épocas
+							if(Thread.currentThread().isInterrupted())
+								throw new CancellationException("Treinamento"+identificador+" cancelado");
+							if(agenda != null)
+								aprendizado = agenda.taxa(EpocasExecutadas + 1);
+							inicio = System.nanoTime();
+							epoca();
+							EpocasExecutadas++;
+							metricas.epoca(EpocasExecutadas, treinamento.linhas(), System.nanoTime() - inicio, aprendizado);
+							if(controle != null)
+								controle.entrega(this, EpocasExecutadas, fracassosSeguidos, melhorResultado);
+						} // encerra loop das épocas
+						primeiraEpoca = 1;
 					
-					atualAcuracia = erros(VALIDACAO);
-					atualErroQuad = erroQuadMed(VALIDACAO);
+						// uma única passada pelos dados de validação fornece a taxa de erros e o erro quadrado
+						inicio = System.nanoTime();
+						Avaliacao avaliacao = avalia(VALIDACAO);
+						atualAcuracia = avaliacao.taxaErros();
+						atualErroQuad = avaliacao.erroQuadrado();
 					
 					
-					// guarda o desempenho em Validação
-					logValidacao.addDados(EpocasExecutadas,atualAcuracia,atualErroQuad,aprendizado);
+						// guarda o desempenho em Validação
+						logValidacao.addDados(EpocasExecutadas,atualAcuracia,atualErroQuad,aprendizado);
 					
+						// agendas como a de platô reduzem a taxa quando a validação deixa de melhorar
+						if(agenda != null)
+							agenda.validacao(EpocasExecutadas, atualAcuracia);
 					
-					// se a rede validada teve o melhor resultado até agora, ela é armazenada
-					if(atualAcuracia < melhorResultado) {
-						melhorResultado = atualAcuracia;
-						melhorRede = Rede.this.clonar();
-						fracassosSeguidos = 0;
-					}
-					else{
-						fracassosSeguidos++;
-					}
 					
-					// se ocorreram mais fracassos consecutivos do que o permitido, declare a interrupção de treinamento
-					if(fracassosSeguidos >= fracassos)
-						haMelhora = false;
+						// se a rede validada teve o melhor resultado até agora, ela é armazenada
+						if(atualAcuracia < melhorResultado) {
+							melhorResultado = atualAcuracia;
+							Rede.this.copiaPara(melhorRede);
+							fracassosSeguidos = 0;
+						}
+						else{
+							fracassosSeguidos++;
+						}
 					
-					// Mostra para o usuario o desempenho em Validação
-					System.out.println("Épocas executadas: "+EpocasExecutadas);
-					System.out.println("Erros em validação: "+ atualAcuracia);
-					System.out.println("Erro quadrado em validação: "+ atualErroQuad);
+						// se ocorreram mais fracassos consecutivos do que o permitido, declare a interrupção de treinamento
+						if(fracassosSeguidos >= fracassos)
+							haMelhora = false;
 					
+						metricas.validacao(atualAcuracia, atualErroQuad, melhorResultado, fracassosSeguidos, System.nanoTime() - inicio);
+						double acuraciaValidacao = atualAcuracia;
+						double erroQuadValidacao = atualErroQuad;
 					
-					// guarda o desempenho em Treinamento
-					atualAcuracia = erros(TREINAMENTO);
-					atualErroQuad = erroQuadMed(TREINAMENTO);
-					logTreinamento.addDados(EpocasExecutadas,atualAcuracia,atualErroQuad,aprendizado);
 					
-					System.out.println("Erros em treinamento: "+ atualAcuracia);
-					System.out.println("Erro quadrado em treinamento: "+ atualErroQuad);
-					System.out.println("Taxa de aprendizado: "+aprendizado);
-					System.out.println();
+						// guarda o desempenho em Treinamento
+						inicio = System.nanoTime();
+						avaliacao = avalia(TREINAMENTO);
+						atualAcuracia = avaliacao.taxaErros();
+						atualErroQuad = avaliacao.erroQuadrado();
+						metricas.treinamento(atualAcuracia, atualErroQuad, System.nanoTime() - inicio);
+						logTreinamento.addDados(EpocasExecutadas,atualAcuracia,atualErroQuad,aprendizado);
 					
-					//aprendizado = aprendizado*0.999;
+						// Mostra para o usuario o desempenho em Validação e em Treinamento
+						mostra("Épocas executadas: "+EpocasExecutadas,
+								"Erros em validação: "+ acuraciaValidacao,
+								"Erro quadrado em validação: "+ erroQuadValidacao,
+								"Erros em treinamento: "+ atualAcuracia,
+								"Erro quadrado em treinamento: "+ atualErroQuad,
+								"Taxa de aprendizado: "+aprendizado,
+								"");
 				
-			} // encerra o while de treinamento
+				} // encerra o while de treinamento
+			} finally {
+				if(controle != null)
+					controle.encerra();
+				metricas.remove();
+			}
 			
 			/* Agora que a melhor rede possível foi encontrada, 
 			 * ela deve ser avaliada pelo conjunto de teste.
@@ -261,10 +421,12 @@ public class Rede {
 			 */
 			
 			Log logTeste = new Log();
-			logTeste.setNomeArquivo("redesTeste_"+"_nE"+camadaEscondida.length+"_tA"+aprendizado+"__"+dateFormat.format(date));
+			logTeste.setNomeArquivo(nomeArquivo("redesTeste_"));
 			
-			double acuraciaFinal = erros(TESTE, melhorRede);
-			double erroQuadFinal = erroQuadMed(TESTE, melhorRede);
+			// a mesma passada pelo conjunto de teste também produz a matriz de confusão
+			Avaliacao avaliacaoFinal = avalia(TESTE, melhorRede);
+			double acuraciaFinal = avaliacaoFinal.taxaErros();
+			double erroQuadFinal = avaliacaoFinal.erroQuadrado();
 			logTeste.addDados(EpocasExecutadas,acuraciaFinal,erroQuadFinal,aprendizado,melhorRede.hashString());
 			
 			// descarrega os logs em disco
@@ -272,167 +434,195 @@ public class Rede {
 			logTreinamento.gravaArquivo();
 			logTeste.gravaArquivo();
 			
-			System.out.println("Melhor erro quadrado alcançado em validação: "+melhorResultado);
-			System.out.println("Erros em teste: "+acuraciaFinal);
-			System.out.println("Erro quadrado em teste: "+erroQuadFinal);
+			mostra("Melhor erro quadrado alcançado em validação: "+melhorResultado,
+					"Erros em teste: "+acuraciaFinal,
+					"Erro quadrado em teste: "+erroQuadFinal);
 			
-			// prepara e salva em disco a matriz de confusão
-			int[][] matrizConfusao = matrizConfusao(melhorRede);
+			// salva em disco a matriz de confusão
+			int[][] matrizConfusao = avaliacaoFinal.matrizConfusao();
 			salvaMatriz(matrizConfusao);
 			
 			// salva em disco a melhorRede
 			this.salva(melhorRede);
 			
 			// envia dados coletados para o pós-processamento
-			PosProcessamento.getInstance().addMatriz(matrizConfusao);
-			
-			double[] temp = {acuraciaFinal,erroQuadFinal};
-			PosProcessamento.getInstance().addErro(temp);
+			if(posProcessamento != null){
+				posProcessamento.addMatriz(matrizConfusao);
+				
+				double[] temp = {acuraciaFinal,erroQuadFinal};
+				posProcessamento.addErro(temp);
+			}
 			
 			
 			// retorna a melhor rede neural encontrada no processo de treinamento
 			return melhorRede;
 		}
 		
-		// uma sessao de treinamento inclui uma operação de feedforward e backpropagation
-		private void sessao(Tupla tupla){
-			
-			// se prepara para armazenar os resultados da camada escondida e dacamada de saída
-			double[] zJ = new double[camadaEscondida.length];
-			double[] yK = new double[camadaSaida.length];
+		// Executa uma época completa sobre o conjunto de treinamento,
+		// tupla a tupla ou em mini-lotes, conforme o tamanho de lote configurado
+		void epoca(){
 			
-			// chama feedForward para cada neurônio da camada escondida
-			for(int neuronioEsc = 0; neuronioEsc < camadaEscondida.length; neuronioEsc++){
-				zJ[neuronioEsc] = camadaEscondida[neuronioEsc].feedForward(tupla);
+			if(atualizacaoDireta()){
+				// Loop das tuplas em cada época
+				for(int linhaDeDados = 0; linhaDeDados < treinamento.linhas(); linhaDeDados++){
+					sessao(linhaDeDados);
+				}
 			}
-			
-			// chama feedFoward para cada neurônio da camada de saída
-			for(int neuronioSai = 0; neuronioSai < camadaSaida.length; neuronioSai++){
-				yK[neuronioSai] = camadaSaida[neuronioSai].feedForward(zJ);
+			else{
+				// Loop dos lotes em cada época; o último lote pode ser menor que os demais
+				for(int inicio = 0; inicio < treinamento.linhas(); inicio += tamanhoLote){
+					sessaoLote(inicio, Math.min(tamanhoLote, treinamento.linhas() - inicio), espaco);
+				}
 			}
+		}
+		
+		// uma sessao de treinamento inclui uma operação de feedforward e backpropagation
+		private void sessao(int linha){
+			sessao(linha, espaco);
+		}
+		
+		// Os cálculos de feedForward, backpropagation e atualização de pesos são feitos nos mesmos laços,
+		// usando apenas os arrays do espaço de trabalho dado. Nenhum objeto é alocado durante a sessão.
+		// A tupla é a linha dada do conjunto de treinamento, lida diretamente do array do conjunto.
+		void sessao(int linha, EspacoTrabalho ws){
 			
+			// atalhos para as dimensões e os blocos de pesos das duas camadas
+			int nEntrada = camadaEscondida.entradas;
+			int nEscondida = camadaEscondida.neuronios;
+			int nSaida = camadaSaida.neuronios;
+			double[] x = treinamento.valores();
+			int inicioX = treinamento.inicio(linha);
+			double[] v = camadaEscondida.peso;
+			double[] w = camadaSaida.peso;
+			double[] zJ = ws.zJ;
+			double[] yK = ws.yK;
+			double[] deltaJ = ws.deltaJ;
 			
+			// faz o feedForward da camada escondida e depois da camada de saída
+			camadaEscondida.feedForward(x, inicioX, zJ);
+			camadaSaida.feedForward(zJ, yK);
+			
+			for(int j = 0; j < nEscondida; j++)
+				deltaJ[j] = 0;
 			
 			/*
 			 * Backpropagation na camada de saída
 			 * 
-			 * Todos os neurônios devem receber o sinal de treinamento -1,
-			 * exceto pelo neurônio que corresponde à classe da tupla dada, 
-			 * que deve receber 1.
+			 * Todos os neurônios devem receber o sinal de treinamento negativo da função de ativação
+			 * (-1 na bipolar sigmóide), exceto pelo neurônio que corresponde à classe da tupla dada,
+			 * que deve receber o positivo (1).
+			 * 
+			 * Cada linha de pesos do neurônio k contribui para o somatório de delta da camada escondida
+			 * antes de ser corrigida, por isso os dois passos podem ser feitos no mesmo laço.
 			 */
 			double tk;
-			double[] deltaK = new double[camadaSaida.length];
-			double[][] delta_wJK = new double[camadaSaida.length][camadaEscondida.length];
-			double[] delta_w0K = new double[camadaSaida.length];
-			for(int k = 0; k < camadaSaida.length; k++){
+			double deltaK;
+			double correcao;
+			int base = 0;
+			for(int k = 0; k < nSaida; k++){
 				
-				if(k == tupla.classe())
-					tk = 1;	
-				else
-					tk = -1;
-				
-				// armaezena o tK em Neuronio para computar o erroQuadrado após o fim da sessão
-				camadaSaida[k].tk = tk;
+				tk = camadaSaida.funcao.alvo(k == treinamento.classe(linha));
 				
 				// executa os primeiros cálculos da backpropagation
-				deltaK[k] = (tk - yK[k])*camadaSaida[k].derivada();
-				
-				for(int j = 0; j < camadaEscondida.length; j++)
-					delta_wJK[k][j] = aprendizado*deltaK[k]*zJ[j];
+				deltaK = (tk - yK[k])*camadaSaida.derivada(yK[k]);
+				correcao = aprendizado*deltaK;
 				
-				delta_w0K[k] = aprendizado*deltaK[k];
+				// faz o somatório para cada input de delta e, em seguida, atualiza os pesos usados
+				Camada.op.axpy(deltaK, w, base, deltaJ, 0, nEscondida);
+				Camada.op.axpy(correcao, zJ, 0, w, base, nEscondida);
 				
+				// atualiza o viés do neurônio de saída
+				camadaSaida.vies[k] += correcao;
+				base += nEscondida;
 			}
 			
 			/*
 			 *  Backpropagation na camada escondida
 			 */
-			
-			// prepara o cálculo para o termo de erro de informação
-			double[] delta_inJ = new double[camadaEscondida.length];
-			double[] deltaJ = new double[camadaEscondida.length];
-			
-			double[][] delta_vIJ = new double[camadaEscondida.length][camadaEscondida[0].peso.length];
-			double[] delta_v0J = new double[camadaEscondida.length];
-			
-			for(int j = 0; j < camadaEscondida.length; j++){
-				// faz o somatório para cada input de delta
-				for(int k = 0; k < camadaSaida.length; k++){
-					delta_inJ[j] += deltaK[k]*camadaSaida[k].getPeso(j);
-				}
+			base = 0;
+			for(int j = 0; j < nEscondida; j++){
 				
 				// calcula o termo de erro de informação
-				deltaJ[j] = delta_inJ[j]*camadaEscondida[j].derivada();
+				deltaJ[j] = deltaJ[j]*camadaEscondida.derivada(zJ[j]);
+				correcao = aprendizado*deltaJ[j];
 				
-				// calcula a correção para cada peso do neurônio ativo
-				for(int i = 0; i < tupla.length(); i++)
-					delta_vIJ[j][i] = aprendizado*deltaJ[j]*tupla.valor(i);
+				// atualiza pesos e viés do neurônio escondido
+				camadaEscondida.vies[j] += correcao;
+				Camada.op.axpy(correcao, x, inicioX, v, base, nEntrada);
 				
-				delta_v0J[j] = aprendizado*deltaJ[j];
-				
-			}
-			
-			// atualiza pesos e viés na camada de saída
-			for(int k = 0; k < camadaSaida.length; k++){
-				camadaSaida[k].setVies(camadaSaida[k].getVies()+delta_w0K[k]);
-				for(int j = 0; j < camadaEscondida.length; j++)
-					camadaSaida[k].setPeso(j, delta_wJK[k][j]);
-			}
-			
-			
-			// atualiza pesos e viés na camada escondida
-			for(int j = 0; j < camadaEscondida.length; j++){
-
-				camadaEscondida[j].setVies(camadaEscondida[j].getVies()+delta_v0J[j]);
-				for(int i = 0; i < tupla.length(); i++)
-					camadaEscondida[j].setPeso(i, delta_vIJ[j][i]);
+				base += nEntrada;
 			}
 			
-			
 		} // fim de uma sessão de Treinamento
 		
 		/*
-		 * Retorna a quantidade de erros (acurácia) que a rede especificada 
-		 * consegue alcançar no conjunto de dados apontado via parâmetro.
+		 * Sessão de treinamento em mini-lote: as tuplas [inicio, inicio+linhas) passam juntas pelo feedForward
+		 * e pela backpropagation, que são feitos como produtos entre matrizes.
+		 * Os gradientes de todo o lote são acumulados e os pesos recebem uma única atualização,
+		 * com a taxa de aprendizado aplicada à média dos gradientes do lote.
 		 */
-		private double erros(int META, Rede mlp){
+		void sessaoLote(int inicio, int linhas, EspacoTrabalho ws){
 			
-			// decide qual será o conjunto de dados usado para testar desempenho
-			Tupla[] entrada = null;
-			if(META == TREINAMENTO)
-				entrada = treinamento;
-			else if(META == VALIDACAO)
-				entrada = validacao;
-			else if(META == TESTE)
-				entrada = teste;
+			gradienteLote(inicio, linhas, ws);
+			aplicaGradiente(ws, linhas);
+		}
+		
+		// Atualiza pesos e vieses das duas camadas uma única vez com o gradiente de um lote de "linhas" tuplas
+		void aplicaGradiente(EspacoTrabalho ws, int linhas){
+			if(otimizador != null){
+				otimizador.atualiza(Rede.this, ws, aprendizado, 1.0/linhas);
+				return;
+			}
 			
+			double taxa = aprendizado/linhas;
+			camadaSaida.aplicaGradiente(ws.gradPesoSaida, ws.gradViesSaida, taxa);
+			camadaEscondida.aplicaGradiente(ws.gradPesoEscondida, ws.gradViesEscondida, taxa);
+		}
+		
+		// Calcula, sem alterar os pesos, a soma dos gradientes das tuplas [inicio, inicio+linhas) nos arrays de "ws"
+		void gradienteLote(int inicio, int linhas, EspacoTrabalho ws){
+			
+			int nEntrada = camadaEscondida.entradas;
+			int nEscondida = camadaEscondida.neuronios;
+			int nSaida = camadaSaida.neuronios;
 			
-			int tentativas = entrada.length;
-			int erros = 0;
-			int resultado;
+			// as tuplas do lote já estão lado a lado no conjunto de treinamento: uma única cópia monta a matriz de entrada
+			System.arraycopy(treinamento.valores(), treinamento.inicio(inicio), ws.entradaLote, 0, linhas*nEntrada);
 			
+			// feedForward do lote inteiro
+			camadaEscondida.feedForwardLote(ws.entradaLote, linhas, ws.escondidaLote);
+			camadaSaida.feedForwardLote(ws.escondidaLote, linhas, ws.saidaLote);
 			
-			for(int i = 0; i < tentativas; i++){
-				resultado = mlp.executar(entrada[i]);
-				if(resultado != entrada[i].classe())
-					erros++;
+			// termos de erro da camada de saída, com o mesmo sinal de treinamento usado em sessao()
+			double tk;
+			for(int b = 0; b < linhas; b++){
+				int classe = treinamento.classe(inicio + b);
+				for(int k = 0; k < nSaida; k++){
+					tk = camadaSaida.funcao.alvo(k == classe);
+					double yK = ws.saidaLote[b*nSaida + k];
+					ws.deltaSaidaLote[b*nSaida + k] = (tk - yK)*camadaSaida.derivada(yK);
+				}
 			}
-			return (double)erros/tentativas;
-		}
-		
-		/* Quando a rede a ser avaliada não for especificada,
-		 * ele assume que deve avaliar a rede da instância atual.
-		 */
-		private double erros(int META){
-			return erros(META,Rede.this);
+			
+			// termos de erro da camada escondida
+			camadaSaida.retropropagaLote(ws.deltaSaidaLote, linhas, ws.deltaEscondidaLote);
+			for(int i = 0; i < linhas*nEscondida; i++)
+				ws.deltaEscondidaLote[i] *= camadaEscondida.derivada(ws.escondidaLote[i]);
+			
+			// acumula os gradientes das duas camadas
+			camadaSaida.gradienteLote(ws.deltaSaidaLote, ws.escondidaLote, linhas, ws.gradPesoSaida, ws.gradViesSaida);
+			camadaEscondida.gradienteLote(ws.deltaEscondidaLote, ws.entradaLote, linhas, ws.gradPesoEscondida, ws.gradViesEscondida);
 		}
 		
 		/*
-		 * Encontra o erro quadrado médio para a Rede especificada.
+		 * Avalia a rede especificada no conjunto de dados apontado via parâmetro.
+		 * Uma única passada pelos dados produz a taxa de erros (acurácia), o erro quadrado
+		 * e a matriz de confusão, com as tuplas divididas entre os núcleos disponíveis.
 		 */
-		private double erroQuadMed(int META, Rede mlp){
+		Avaliacao avalia(int META, Rede mlp){
+			
 			// decide qual será o conjunto de dados usado para testar desempenho
-			Tupla[] entrada = null;
+			ConjuntoDados entrada = null;
 			if(META == TREINAMENTO)
 				entrada = treinamento;
 			else if(META == VALIDACAO)
@@ -440,46 +630,14 @@ public class Rede {
 			else if(META == TESTE)
 				entrada = teste;
 			
-			double erroQuad = 0;
-			double temp = 0;
-			
-			for (int i = 0; i < entrada.length; i++) {
-				mlp.executar(entrada[i]);
-				
-				// encontra o erro quadrado médio para a tupla executada
-				for (int j = 0; j < mlp.camadaSaida.length; j++) {
-					temp += Math.pow((mlp.camadaSaida[j].tk - mlp.camadaSaida[j].fAtivacao), 2); 
-				}
-				erroQuad += temp;
-				temp = 0;
-				
-			}
-			return erroQuad;
+			return Avaliacao.avalia(mlp, entrada);
 		}
 		
 		/* Quando a rede a ser avaliada não for especificada,
 		 * ele assume que deve avaliar a rede da instância atual.
 		 */
-		private double erroQuadMed(int META){
-			return erroQuadMed(META,Rede.this);
-		}
-		
-		/* Cria a matriz de confusão da rede neural especificada
-		 * via parâmetro. Esse mapeamento sempre será 
-		 * feito com o conjunto de teste.
-		 * As linhas da matriz gerada representam a realidade, 
-		 * enquanto as colunas mostram as respostas da rede.
-		 */
-		private int[][] matrizConfusao(Rede mlp){
-			
-			int[][] matriz = new int[10][10];
-			
-			// roda por todas as linhas de dados em teste
-			for(int i=0; i<teste.length; i++){
-				matriz[teste[i].classe()][mlp.executar(teste[i])]++;
-			}
-			
-			return matriz;
+		Avaliacao avalia(int META){
+			return avalia(META,Rede.this);
 		}
 		
 		/* 
@@ -487,11 +645,10 @@ public class Rede {
 		 */
 		private void salvaMatriz(int[][] matriz) {
 			
-			DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
 			PrintStream pr;
 
 			try {
-				pr = new PrintStream(new File("matrizConfusao_"+"_nE"+camadaEscondida.length+"_tA"+aprendizado+"__"+dateFormat.format(date)+".csv"));
+				pr = new PrintStream(new File(nomeArquivo("matrizConfusao_")+".csv"));
 				
 				// printa um cabeçalho identificando a rede
 				pr.print("Rede id: "+melhorRede.hashString());
@@ -502,7 +659,7 @@ public class Rede {
 				
 				// printa os header de colunas
 				pr.print("	");
-				for (int i = 0; i < 10; i++) {
+				for (int i = 0; i < matriz.length; i++) {
 					pr.print("	"+i);
 				}
 				pr.println();
@@ -525,11 +682,10 @@ public class Rede {
 		
 		// Salva a instância especificada de Rede em disco
 		public void salva(Rede mlp){
-			DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
 			PrintStream pr;
 
 			try {
-				pr = new PrintStream(new File("redeFinal_"+"_nE"+camadaEscondida.length+"_tA"+aprendizado+"__"+dateFormat.format(date)+".csv"));
+				pr = new PrintStream(new File(nomeArquivo("redeFinal_")+".csv"));
 				
 				// printa um cabeçalho identificando a rede
 				pr.print("Rede id: "+mlp.hashString());
@@ -537,31 +693,373 @@ public class Rede {
 				
 				// printa os header de colunas
 				pr.print(mlp.toString());
+				pr.close();
 			} catch (FileNotFoundException e) {
 				e.printStackTrace();
 			}
+
+			// a mesma rede também é gravada no formato binário, muito mais rápido de carregar
+			try {
+				ModeloBinario.grava(mlp, nomeArquivo("redeFinal_")+".mlp");
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
 		}
 
 
 
 	} // fim da classe aninhada de Treinamento
 	
+	
+	//************* Controle para treinamento paralelo *********************//
+	/*
+	 * Treinamento com várias threads no estilo Hogwild: o conjunto de treinamento é dividido em fatias contíguas
+	 * e cada thread aplica sessões de treinamento da sua fatia diretamente sobre os pesos compartilhados da rede,
+	 * sem nenhum tipo de trava. As atualizações concorrentes podem se sobrepor ocasionalmente, o que é aceito
+	 * em troca de usar todos os núcleos disponíveis. Com um otimizador, o estado dele é compartilhado da mesma forma.
+	 * O controle de épocas, validação e fracassos é o mesmo de Treinamento.executar().
+	 */
+	
+	class TreinamentoParalelo extends Treinamento {
+		
+		// quantidade de threads que treinarão a rede ao mesmo tempo
+		int threads;
+		
+		// threads de trabalho e o espaço de trabalho exclusivo de cada uma delas
+		private ExecutorService executor;
+		private EspacoTrabalho[] espacos;
+		
+		public TreinamentoParalelo(ConjuntoDados treinamento, ConjuntoDados validacao, ConjuntoDados teste, double aprendizado, int threads){
+			super(treinamento, validacao, teste, aprendizado);
+			this.threads = Math.max(1, Math.min(threads, treinamento.linhas()));
+		}
+		
+		// o treinamento em paralelo termina com a liberação das threads de trabalho
+		public Rede executar(int intervalo, int fracassos){
+			try {
+				return super.executar(intervalo, fracassos);
+			} finally {
+				if(executor != null){
+					executor.shutdown();
+					executor = null;
+				}
+			}
+		}
+		
+		// cada thread percorre sua fatia do conjunto de treinamento, tupla a tupla ou em mini-lotes
+		void epoca(){
+			
+			prepara();
+			
+			List<Callable<Void>> fatias = new ArrayList<Callable<Void>>(threads);
+			for(int t = 0; t < threads; t++){
+				final int inicio = (int)((long)t*treinamento.linhas()/threads);
+				final int fim = (int)((long)(t+1)*treinamento.linhas()/threads);
+				final EspacoTrabalho ws = espacos[t];
+				
+				fatias.add(new Callable<Void>() {
+					public Void call(){
+						if(atualizacaoDireta()){
+							for(int linhaDeDados = inicio; linhaDeDados < fim; linhaDeDados++)
+								sessao(linhaDeDados, ws);
+						}
+						else{
+							for(int lote = inicio; lote < fim; lote += tamanhoLote)
+								sessaoLote(lote, Math.min(tamanhoLote, fim - lote), ws);
+						}
+						return null;
+					}
+				});
+			}
+			
+			// espera todas as fatias terminarem antes de encerrar a época
+			try {
+				for(Future<Void> f : executor.invokeAll(fatias))
+					f.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Treinamento paralelo interrompido", e);
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("Falha em uma thread de treinamento", e.getCause());
+			}
+		}
+		
+		// cria as threads e os espaços de trabalho na primeira época, ou quando o tamanho do lote for alterado
+		private void prepara(){
+			
+			if(executor == null)
+				executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+					public Thread newThread(Runnable r){
+						Thread t = new Thread(r, "treinamento-mlp");
+						t.setDaemon(true);
+						return t;
+					}
+				});
+			
+			if(espacos == null || espacos[0].lote != tamanhoLote){
+				espacos = new EspacoTrabalho[threads];
+				for(int t = 0; t < threads; t++)
+					espacos[t] = new EspacoTrabalho(Rede.this, tamanhoLote);
+			}
+		}
+		
+	} // fim da classe aninhada de TreinamentoParalelo
+	
+	
+	/*
+	 * Treinamento paralelo síncrono, alternativa determinística ao TreinamentoParalelo.
+	 * Cada mini-lote é dividido em partes fixas, uma por thread de um ForkJoinPool; cada thread calcula
+	 * o gradiente da sua parte em um espaço de trabalho exclusivo. Os gradientes são então somados em uma
+	 * árvore de ordem fixa (as metades de cada intervalo de partes são sempre somadas da mesma forma) e
+	 * os pesos da rede recebem uma única atualização por lote.
+	 * Como nem a divisão nem a ordem das somas dependem do escalonamento das threads, o resultado é
+	 * idêntico bit a bit para a mesma semente e a mesma quantidade de threads.
+	 */
+	
+	class TreinamentoSincrono extends Treinamento {
+		
+		// quantidade de partes em que cada lote é dividido
+		int threads;
+		
+		private ForkJoinPool pool;
+		private EspacoTrabalho[] espacos;
+		
+		public TreinamentoSincrono(ConjuntoDados treinamento, ConjuntoDados validacao, ConjuntoDados teste, double aprendizado, int threads){
+			super(treinamento, validacao, teste, aprendizado);
+			this.threads = Math.max(1, threads);
+		}
+		
+		// o treinamento termina com a liberação das threads do pool
+		public Rede executar(int intervalo, int fracassos){
+			try {
+				return super.executar(intervalo, fracassos);
+			} finally {
+				if(pool != null){
+					pool.shutdown();
+					pool = null;
+				}
+			}
+		}
+		
+		// percorre o conjunto de treinamento em lotes; cada lote precisa de ao menos uma tupla por thread.
+		// Um lote menor não é aumentado, já que isso mudaria a própria otimização, e sim recusado (veja Main).
+		void epoca(){
+			
+			if(tamanhoLote < threads)
+				throw new IllegalStateException("O treinamento síncrono precisa de lotes com ao menos uma tupla por thread: lote="
+						+ tamanhoLote + ", threads=" + threads);
+			int lote = tamanhoLote;
+			prepara(lote);
+			
+			for(int inicio = 0; inicio < treinamento.linhas(); inicio += lote){
+				int linhas = Math.min(lote, treinamento.linhas() - inicio);
+				
+				// calcula e soma os gradientes de todas as partes; o resultado fica no primeiro espaço de trabalho
+				pool.invoke(new Reducao(inicio, linhas, 0, threads));
+				aplicaGradiente(espacos[0], linhas);
+			}
+		}
+		
+		// cria o pool e os espaços de trabalho, com espaço para a maior parte possível de um lote
+		private void prepara(int lote){
+			
+			if(pool == null)
+				pool = new ForkJoinPool(threads);
+			
+			int parte = (lote + threads - 1)/threads;
+			if(espacos == null || espacos[0].lote != parte){
+				espacos = new EspacoTrabalho[threads];
+				for(int t = 0; t < threads; t++)
+					espacos[t] = new EspacoTrabalho(Rede.this, parte);
+			}
+		}
+		
+		/*
+		 * Tarefa que calcula o gradiente das partes [de, ate) de um lote.
+		 * Com uma única parte, calcula o gradiente diretamente; com mais partes, divide o intervalo ao meio,
+		 * resolve as duas metades em paralelo e soma o resultado da segunda metade na primeira.
+		 */
+		private class Reducao extends RecursiveAction {
+			
+			private static final long serialVersionUID = 1L;
+			
+			int inicio, linhas; // posição e tamanho do lote no conjunto de treinamento
+			int de, ate; // intervalo de partes tratado por esta tarefa
+			
+			Reducao(int inicio, int linhas, int de, int ate){
+				this.inicio = inicio;
+				this.linhas = linhas;
+				this.de = de;
+				this.ate = ate;
+			}
+			
+			protected void compute(){
+				
+				if(ate - de == 1){
+					// cada parte é uma fatia contígua e fixa do lote
+					int primeira = (int)((long)de*linhas/threads);
+					int ultima = (int)((long)(de+1)*linhas/threads);
+					gradienteLote(inicio + primeira, ultima - primeira, espacos[de]);
+					return;
+				}
+				
+				int meio = (de + ate)/2;
+				invokeAll(new Reducao(inicio, linhas, de, meio), new Reducao(inicio, linhas, meio, ate));
+				espacos[de].somaGradiente(espacos[meio]);
+			}
+		}
+		
+	} // fim da classe aninhada de TreinamentoSincrono
+	
+	
+	//************* Controle para treinamento em precisão simples *********************//
+	/*
+	 * Treinamento tupla a tupla em float: os pesos e o conjunto de treinamento são convertidos uma única vez
+	 * para arrays de float (RedeFloat) e as épocas são executadas inteiramente em precisão simples.
+	 * Ao final de cada época, os pesos são copiados de volta para esta Rede, de modo que a validação,
+	 * a escolha da melhor rede, os logs e os arquivos gravados continuam exatamente como em Treinamento.
+	 * O tamanho de lote e o otimizador não são usados: os pesos são sempre atualizados a cada tupla pela descida de gradiente simples.
+	 */
+	
+	class TreinamentoFloat extends Treinamento {
+		
+		private RedeFloat redeFloat;
+		private float[] dados; // tuplas de treinamento, com a mesma organização do ConjuntoDados
+		
+		public TreinamentoFloat(ConjuntoDados treinamento, ConjuntoDados validacao, ConjuntoDados teste, double aprendizado){
+			super(treinamento, validacao, teste, aprendizado);
+			this.redeFloat = new RedeFloat(Rede.this);
+			this.dados = RedeFloat.converte(treinamento);
+		}
+		
+		void epoca(){
+			float taxa = (float)aprendizado;
+			
+			for(int t = 0; t < treinamento.linhas(); t++)
+				redeFloat.sessao(dados, treinamento.inicio(t), treinamento.classe(t), taxa);
+			
+			redeFloat.copiaPara(Rede.this);
+		}
+		
+		// os pesos restaurados também precisam chegar à cópia em float, que é a que de fato é treinada
+		public void retoma(EstadoTreinamento estado){
+			super.retoma(estado);
+			redeFloat.copiaDe(Rede.this);
+		}
+		
+	} // fim da classe aninhada de TreinamentoFloat
+	
 	//************* Controle para execução *********************//
 	// classe executar de Rede faz a operação de FeedForward e retorna a classe a que a tupla deve pertencer
-	public int executar(Tupla tupla){
+	// Pode ser chamado por várias threads ao mesmo tempo: os resultados intermediários ficam na Inferencia de cada thread
+	public int executar(double[] entrada){
+		return inferencia().classifica(entrada);
+	}
+	
+	// Classifica a linha i do conjunto de dados, lida diretamente do conjunto, sem cópia
+	public int executar(ConjuntoDados dados, int i){
+		return inferencia().classifica(dados, i);
+	}
+	
+	// visão somente leitura desta rede, criada na primeira classificação
+	private volatile Inferencia inferencia;
+	
+	// Retorna a visão de inferência desta rede, compartilhada por todas as threads que classificam com ela
+	public Inferencia inferencia(){
+		Inferencia visao = inferencia;
+		if(visao == null)
+			inferencia = visao = new Inferencia(this);
+		return visao;
+	}
+	
+	/*
+	 * Classifica várias entradas de uma vez, uma por linha da matriz, e retorna a classe de cada uma.
+	 * As linhas são copiadas em blocos contíguos e passadas pelas camadas com feedForwardLote,
+	 * que reaproveita cada peso lido para várias linhas. Matrizes grandes são divididas entre os núcleos disponíveis.
+	 * A rede não é alterada, de modo que várias chamadas podem ser feitas ao mesmo tempo.
+	 */
+	public int[] executar(double[][] entradas){
+		return executar(entradas, null);
+	}
+	
+	// Se "saidas" não for null, sua linha i recebe a ativação da camada de saída para a entrada i
+	// (linhas null são alocadas aqui)
+	public int[] executar(double[][] entradas, double[][] saidas){
 		
-		// passa todas as colunas da tupla para a camada escondida e armazena os resultados
-		double[] z = new double[camadaEscondida.length];
-		for(int i = 0; i < camadaEscondida.length; i++)
-			z[i] = camadaEscondida[i].feedForward(tupla);
+		int[] classes = new int[entradas.length];
 		
-		// passa todos os valores da camada escondida para a camanda de saída e armazena os resultados finais
-		double[] y = new double[camadaSaida.length];
-		for(int i = 0; i < camadaSaida.length; i++)
-			y[i] = camadaSaida[i].feedForward(z);
+		if(entradas.length >= LINHAS_PARALELO)
+			ForkJoinPool.commonPool().invoke(new ExecucaoLote(entradas, saidas, classes, 0, entradas.length));
+		else
+			executarLote(entradas, saidas, classes, 0, entradas.length);
+		
+		return classes;
+	}
+	
+	// quantidade de linhas passadas juntas pelas camadas
+	private static final int BLOCO = 64;
+	// matrizes a partir desse tamanho são divididas entre os núcleos
+	private static final int LINHAS_PARALELO = 1024;
+	
+	// Classifica sequencialmente as linhas [inicio, fim), em blocos de BLOCO linhas
+	private void executarLote(double[][] entradas, double[][] saidas, int[] classes, int inicio, int fim){
 		
-		return decide(y);
+		int nEntrada = camadaEscondida.entradas;
+		int nSaida = camadaSaida.neuronios;
+		int bloco = Math.min(BLOCO, fim - inicio);
 		
+		double[] entrada = new double[bloco*nEntrada];
+		double[] escondida = new double[bloco*camadaEscondida.neuronios];
+		double[] saida = new double[bloco*nSaida];
+		
+		for(int b = inicio; b < fim; b += bloco){
+			int linhas = Math.min(bloco, fim - b);
+			
+			for(int l = 0; l < linhas; l++)
+				System.arraycopy(entradas[b + l], 0, entrada, l*nEntrada, nEntrada);
+			
+			camadaEscondida.feedForwardLote(entrada, linhas, escondida);
+			camadaSaida.feedForwardLote(escondida, linhas, saida);
+			
+			for(int l = 0; l < linhas; l++){
+				classes[b + l] = decide(saida, l*nSaida, nSaida);
+				
+				if(saidas != null){
+					if(saidas[b + l] == null)
+						saidas[b + l] = new double[nSaida];
+					System.arraycopy(saida, l*nSaida, saidas[b + l], 0, nSaida);
+				}
+			}
+		}
+	}
+	
+	// Divide um intervalo de linhas ao meio até que cada parte caiba em uma execução sequencial
+	private class ExecucaoLote extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		double[][] entradas, saidas;
+		int[] classes;
+		int inicio, fim;
+		
+		ExecucaoLote(double[][] entradas, double[][] saidas, int[] classes, int inicio, int fim){
+			this.entradas = entradas;
+			this.saidas = saidas;
+			this.classes = classes;
+			this.inicio = inicio;
+			this.fim = fim;
+		}
+		
+		protected void compute(){
+			if(fim - inicio < LINHAS_PARALELO){
+				executarLote(entradas, saidas, classes, inicio, fim);
+				return;
+			}
+			
+			int meio = (inicio + fim)/2;
+			invokeAll(new ExecucaoLote(entradas, saidas, classes, inicio, meio),
+					new ExecucaoLote(entradas, saidas, classes, meio, fim));
+		}
 	}
 	
 	/*
@@ -569,15 +1067,20 @@ public class Rede {
 	 * O neurônio que responder com o maior valor será considerado o decisor.
 	 */
 	
-	private int decide(double[] saida){
+	static int decide(double[] saida){
+		return decide(saida, 0, saida.length);
+	}
+	
+	// Decide a partir dos "n" valores de saída que começam na posição "inicio" do array
+	static int decide(double[] saida, int inicio, int n){
 		
 		int ret = -1;
 		double maior = Double.MAX_VALUE*(-1); // menor double possível
 		
 		// encontra o neurônio que retornou o maior valor
-		for(int i = 0; i < saida.length; i++){
-			if(saida[i] > maior){
-				maior = saida[i];
+		for(int i = 0; i < n; i++){
+			if(saida[inicio + i] > maior){
+				maior = saida[inicio + i];
 				ret = i;
 			}
 		}
@@ -588,31 +1091,43 @@ public class Rede {
 	
 	// Clona uma Rede e retorna a referência ao novo objeto
 	public Rede clonar(){
-		return Rede.fromString(this.toString());
+		return new Rede(this);
+	}
+	
+	// Copia os pesos desta rede para uma rede de mesmas dimensões já existente.
+	// Apenas cópias em bloco dos arrays são feitas, sem nenhuma alocação.
+	public void copiaPara(Rede destino){
+		this.camadaEscondida.copiaPara(destino.camadaEscondida);
+		this.camadaSaida.copiaPara(destino.camadaSaida);
+	}
+	
+	// Restaura nesta rede os pesos guardados anteriormente em "copia" por copiaPara()
+	public void restaura(Rede copia){
+		copia.copiaPara(this);
 	}
 	
 		
 	// especifica como salvar a rede em formato String
 	public String toString(){
 		StringBuffer rede = new StringBuffer();
-		rede.append(camadaEscondida.length + ";" + camadaSaida.length + ";" + camadaEscondida[0].peso.length + ";" + camadaSaida[0].peso.length + ";\n");
+		rede.append(camadaEscondida.neuronios + ";" + camadaSaida.neuronios + ";" + camadaEscondida.entradas + ";" + camadaSaida.entradas + ";\n");
 		//rede.append(viesEscondida + ";" + viesSaida + "\n");
 		// Camada escondida
-		for(int i = 0; i < camadaEscondida.length; i++) {
+		for(int i = 0; i < camadaEscondida.neuronios; i++) {
 			rede.append("1;"); // 1 = camada escondida
-			rede.append(camadaEscondida[i].getVies()); // A primeira coluna de cada linha conterá o viés
-			for(int j = 0; j < camadaEscondida[i].peso.length; j++) {
-				rede.append(";" + camadaEscondida[i].peso[j]);
+			rede.append(camadaEscondida.getVies(i)); // A primeira coluna de cada linha conterá o viés
+			for(int j = 0; j < camadaEscondida.entradas; j++) {
+				rede.append(";" + camadaEscondida.getPeso(i, j));
 			}
 			rede.append("\n");
 		}
 		
 		// Camada saída
-		for(int i = 0; i < camadaSaida.length; i++) {
+		for(int i = 0; i < camadaSaida.neuronios; i++) {
 			rede.append("2;"); // 2 = camada saída
-			rede.append(camadaSaida[i].getVies()); // A primeira coluna de cada linha conterá o viés
-			for(int j = 0; j < camadaSaida[i].peso.length; j++) {
-				rede.append(";" + camadaSaida[i].peso[j]);
+			rede.append(camadaSaida.getVies(i)); // A primeira coluna de cada linha conterá o viés
+			for(int j = 0; j < camadaSaida.entradas; j++) {
+				rede.append(";" + camadaSaida.getPeso(i, j));
 			}
 			rede.append("\n");
 		}
@@ -0,0 +1,162 @@
+public class RedeFloat {
+
+	/*
+	 * Versão em precisão simples (float) da rede MLP, para treinamento e classificação.
+	 * Os pesos, as ativações e os dados de treinamento ficam em arrays de float, que ocupam metade
+	 * da memória dos arrays de double e, por isso, exigem metade da banda de memória no produto
+	 * escalar da camada de entrada.
+	 * Os pesos são organizados como em Camada (linha a linha), e a conversão de e para Rede permite
+	 * gravar e carregar os mesmos arquivos de rede usados pela versão em double.
+	 */
+
+	int nEntrada, nEscondida, nSaida;
+
+	float[] pesoEscondida; // peso[j*nEntrada + i], como em Camada
+	float[] viesEscondida;
+	float[] pesoSaida; // peso[k*nEscondida + j]
+	float[] viesSaida;
+
+	// funções de ativação de cada camada, calculadas em double e arredondadas
+	Ativacao funcaoEscondida, funcaoSaida;
+	private float alvoPositivo, alvoNegativo;
+
+	// arrays auxiliares de uma sessão de treinamento ou de uma classificação
+	private float[] zJ, yK, deltaJ;
+
+
+	// Cria uma rede em float com os pesos da rede dada, arredondados para precisão simples
+	public RedeFloat(Rede mlp){
+		this.nEntrada = mlp.camadaEscondida.entradas;
+		this.nEscondida = mlp.camadaEscondida.neuronios;
+		this.nSaida = mlp.camadaSaida.neuronios;
+
+		this.pesoEscondida = new float[nEscondida*nEntrada];
+		this.viesEscondida = new float[nEscondida];
+		this.pesoSaida = new float[nSaida*nEscondida];
+		this.viesSaida = new float[nSaida];
+
+		this.zJ = new float[nEscondida];
+		this.yK = new float[nSaida];
+		this.deltaJ = new float[nEscondida];
+
+		this.funcaoEscondida = mlp.camadaEscondida.funcao;
+		this.funcaoSaida = mlp.camadaSaida.funcao;
+		this.alvoPositivo = (float)funcaoSaida.alvo(true);
+		this.alvoNegativo = (float)funcaoSaida.alvo(false);
+
+		copiaDe(mlp);
+	}
+
+	// Substitui os pesos desta rede pelos pesos da rede em double dada, de mesmas dimensões
+	public void copiaDe(Rede mlp){
+		converte(mlp.camadaEscondida.peso, pesoEscondida);
+		converte(mlp.camadaEscondida.vies, viesEscondida);
+		converte(mlp.camadaSaida.peso, pesoSaida);
+		converte(mlp.camadaSaida.vies, viesSaida);
+	}
+
+	// Copia os pesos desta rede para uma rede em double de mesmas dimensões, que pode então ser avaliada ou gravada
+	public void copiaPara(Rede destino){
+		converte(pesoEscondida, destino.camadaEscondida.peso);
+		converte(viesEscondida, destino.camadaEscondida.vies);
+		converte(pesoSaida, destino.camadaSaida.peso);
+		converte(viesSaida, destino.camadaSaida.vies);
+	}
+
+
+	//************* Conversões *********************//
+
+	static void converte(double[] origem, float[] destino){
+		for(int i = 0; i < origem.length; i++)
+			destino[i] = (float)origem[i];
+	}
+
+	static void converte(float[] origem, double[] destino){
+		for(int i = 0; i < origem.length; i++)
+			destino[i] = origem[i];
+	}
+
+	// Copia todos os atributos de um conjunto de dados para um array de float, com a mesma organização
+	public static float[] converte(ConjuntoDados dados){
+		float[] convertidos = new float[dados.valores().length];
+		converte(dados.valores(), convertidos);
+		return convertidos;
+	}
+
+
+	//************* Feedforward e backpropagation *********************//
+
+	// feedForward de uma camada para a entrada que começa na posição "inicio" do array dado
+	private static void feedForward(float[] peso, float[] vies, int neuronios, int entradas, Ativacao funcao,
+			float[] entrada, int inicio, float[] saida){
+
+		int base = 0;
+		for(int j = 0; j < neuronios; j++){
+			float soma = 0;
+			for(int i = 0; i < entradas; i++)
+				soma += entrada[inicio + i]*peso[base + i];
+			soma += vies[j];
+
+			saida[j] = (float)funcao.funcao(soma);
+			base += entradas;
+		}
+	}
+
+	// Classifica a entrada que começa na posição "inicio" do array dado
+	public int classifica(float[] dados, int inicio){
+		feedForward(pesoEscondida, viesEscondida, nEscondida, nEntrada, funcaoEscondida, dados, inicio, zJ);
+		feedForward(pesoSaida, viesSaida, nSaida, nEscondida, funcaoSaida, zJ, 0, yK);
+
+		int ret = -1;
+		float maior = -Float.MAX_VALUE;
+		for(int k = 0; k < nSaida; k++){
+			if(yK[k] > maior){
+				maior = yK[k];
+				ret = k;
+			}
+		}
+		return ret;
+	}
+
+	/*
+	 * Sessão de treinamento sobre a tupla que começa na posição "inicio" de "dados".
+	 * Segue exatamente os passos de Rede.Treinamento.sessao, em precisão simples.
+	 */
+	public void sessao(float[] dados, int inicio, int classe, float aprendizado){
+
+		feedForward(pesoEscondida, viesEscondida, nEscondida, nEntrada, funcaoEscondida, dados, inicio, zJ);
+		feedForward(pesoSaida, viesSaida, nSaida, nEscondida, funcaoSaida, zJ, 0, yK);
+
+		for(int j = 0; j < nEscondida; j++)
+			deltaJ[j] = 0;
+
+		// Backpropagation na camada de saída
+		int base = 0;
+		for(int k = 0; k < nSaida; k++){
+			float tk = (k == classe) ? alvoPositivo : alvoNegativo;
+			float deltaK = (tk - yK[k])*(float)funcaoSaida.derivada(yK[k]);
+			float correcao = aprendizado*deltaK;
+
+			for(int j = 0; j < nEscondida; j++){
+				deltaJ[j] += deltaK*pesoSaida[base + j];
+				pesoSaida[base + j] += correcao*zJ[j];
+			}
+
+			viesSaida[k] += correcao;
+			base += nEscondida;
+		}
+
+		// Backpropagation na camada escondida
+		base = 0;
+		for(int j = 0; j < nEscondida; j++){
+			float correcao = aprendizado*deltaJ[j]*(float)funcaoEscondida.derivada(zJ[j]);
+
+			viesEscondida[j] += correcao;
+			for(int i = 0; i < nEntrada; i++)
+				pesoEscondida[base + i] += correcao*dados[inicio + i];
+
+			base += nEntrada;
+		}
+	}
+
+}
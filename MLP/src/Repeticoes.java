@@ -0,0 +1,86 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class Repeticoes {
+
+	/*
+	 * Esta classe executa várias repetições independentes de treinamento da rede MLP ao mesmo tempo.
+	 * Os conjuntos de dados são lidos uma única vez por quem cria esta classe e compartilhados, somente
+	 * para leitura, por todas as repetições. Cada repetição cria sua própria Rede e seu próprio Treinamento
+	 * e envia os resultados de teste para um PosProcessamento compartilhado.
+	 * Se uma repetição falhar, as demais são canceladas: seus resultados seriam descartados de qualquer forma,
+	 * e cada treinamento para ao perceber a interrupção, entre duas épocas.
+	 */
+
+	// Cria o treinamento de uma repetição; cada chamada deve devolver uma nova Rede com seu Treinamento
+	public interface Fabrica {
+		Rede.Treinamento cria(int repeticao);
+	}
+
+	private PosProcessamento posProcessamento;
+	private int paralelas; // quantidade máxima de repetições executadas ao mesmo tempo
+
+	// "threadsPorRepeticao" informa quantas threads cada treinamento usa internamente,
+	// para que o total de threads ativas não ultrapasse a quantidade de núcleos disponíveis
+	public Repeticoes(PosProcessamento posProcessamento, int threadsPorRepeticao){
+		this.posProcessamento = posProcessamento;
+		this.paralelas = Math.max(1, Runtime.getRuntime().availableProcessors()/Math.max(1, threadsPorRepeticao));
+	}
+
+	// Executa as repetições pedidas e só retorna quando todas tiverem terminado
+	public void executa(final int repeticoes, final Fabrica fabrica, final int intervalo, final int fracassos) throws Exception {
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(paralelas, Math.max(1, repeticoes)));
+		List<Future<Rede>> resultados = new ArrayList<Future<Rede>>();
+
+		try {
+			for(int i = 0; i < repeticoes; i++){
+				final int repeticao = i;
+
+				resultados.add(executor.submit(new Callable<Rede>() {
+					public Rede call(){
+						Rede.Treinamento train = fabrica.cria(repeticao);
+						train.setPosProcessamento(posProcessamento);
+
+						// repetições executadas juntas podem começar no mesmo segundo, então seus arquivos são numerados
+						if(repeticoes > 1)
+							train.setIdentificador("_r"+repeticao);
+
+						return train.executar(intervalo, fracassos);
+					}
+				}));
+			}
+
+			// espera todas as repetições; a primeira falha encontrada é repassada a quem chamou
+			for(Future<Rede> f : resultados){
+				try {
+					f.get();
+				} catch (ExecutionException e) {
+					cancela(resultados, executor);
+					Throwable causa = e.getCause();
+					if(causa instanceof Exception)
+						throw (Exception)causa;
+					throw e;
+				} catch (InterruptedException e) {
+					cancela(resultados, executor);
+					throw e;
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	// interrompe as repetições em execução e descarta as que ainda não começaram
+	private static void cancela(List<Future<Rede>> resultados, ExecutorService executor){
+		for(Future<Rede> f : resultados)
+			f.cancel(true);
+		executor.shutdownNow();
+	}
+
+}
@@ -0,0 +1,244 @@
+public abstract class AgendaAprendizado {
+
+	/*
+	 * Agenda da taxa de aprendizado ao longo do treinamento.
+	 * Antes de cada epoca, o treinamento pergunta a agenda qual taxa usar; depois de cada validacao,
+	 * informa o erro obtido, o que permite reduzir a taxa quando a validacao deixa de melhorar.
+	 * As epocas sao contadas a partir de 1.
+	 *
+	 * Uma agenda e descrita por um texto, para que possa ser escolhida sem recompilar:
+	 *   constante                        taxa inicial durante todo o treinamento
+	 *   degrau:N:F                       multiplica a taxa por F a cada N epocas
+	 *   exponencial:F                    multiplica a taxa por F a cada epoca
+	 *   cosseno:N:MIN                    desce da taxa inicial ate MIN em N epocas, seguindo meio periodo de cosseno
+	 *   plato:P:F:MIN                    multiplica a taxa por F depois de P validacoes seguidas sem melhora, sem passar de MIN
+	 *   aquecimento:N+OUTRA              sobe linearmente de 0 ate a taxa inicial nas N primeiras epocas e depois segue a agenda OUTRA
+	 *
+	 * N e P sao inteiros positivos, F esta em (0, 1] e MIN em [0, taxa inicial]; valores fora disso lancam
+	 * IllegalArgumentException.
+	 */
+
+	double taxaInicial;
+
+	AgendaAprendizado(double taxaInicial){
+		this.taxaInicial = taxaInicial;
+	}
+
+	// Retorna a taxa de aprendizado a ser usada na epoca dada
+	public abstract double taxa(int epoca);
+
+	// Recebe o erro de validacao obtido ao final da epoca dada; so e usado pelas agendas que dependem da validacao
+	public void validacao(int epoca, double erro){
+	}
+
+	// Estado acumulado pela agenda, para que um treinamento interrompido possa continuar de onde parou;
+	// vazio nas agendas que dependem apenas da epoca
+	public double[] estado(){
+		return new double[0];
+	}
+
+	// Restaura um estado retornado por estado()
+	public void restaura(double[] estado){
+	}
+
+	// Quantidade de epocas iniciais de aquecimento, em que a taxa ainda esta subindo ate a taxa inicial;
+	// criterios de parada pela taxa minima nao fazem sentido durante essas epocas
+	public int epocasAquecimento(){
+		return 0;
+	}
+
+	// Cria a agenda descrita pelo texto dado (veja o comentario da classe)
+	public static AgendaAprendizado porNome(String descricao, double taxaInicial){
+
+		int mais = descricao.indexOf('+');
+		if(descricao.startsWith("aquecimento:") && mais > 0){
+			int epocas = positivo(descricao.substring("aquecimento:".length(), mais), descricao);
+			return new Aquecimento(taxaInicial, epocas, porNome(descricao.substring(mais + 1), taxaInicial));
+		}
+
+		String[] partes = descricao.split(":");
+		String nome = partes[0];
+
+		if(nome.equals("constante") && partes.length == 1)
+			return new Constante(taxaInicial);
+		if(nome.equals("degrau") && partes.length == 3)
+			return new Degrau(taxaInicial, positivo(partes[1], descricao), fator(partes[2], descricao));
+		if(nome.equals("exponencial") && partes.length == 2)
+			return new Exponencial(taxaInicial, fator(partes[1], descricao));
+		if(nome.equals("cosseno") && partes.length == 3)
+			return new Cosseno(taxaInicial, positivo(partes[1], descricao), minimo(partes[2], taxaInicial, descricao));
+		if(nome.equals("plato") && partes.length == 4)
+			return new Plato(taxaInicial, positivo(partes[1], descricao), fator(partes[2], descricao), minimo(partes[3], taxaInicial, descricao));
+
+		throw new IllegalArgumentException("Agenda de aprendizado desconhecida: " + descricao);
+	}
+
+	// N e P: quantidade de epocas ou de validacoes, maior que zero
+	private static int positivo(String valor, String descricao){
+		int n = Integer.parseInt(valor);
+		if(n <= 0)
+			throw new IllegalArgumentException("Agenda de aprendizado " + descricao + ": " + valor + " deve ser maior que zero");
+		return n;
+	}
+
+	// F: fator de reducao da taxa, em (0, 1]
+	private static double fator(String valor, String descricao){
+		double f = Double.parseDouble(valor);
+		if(!(f > 0 && f <= 1))
+			throw new IllegalArgumentException("Agenda de aprendizado " + descricao + ": o fator " + valor + " deve estar em (0, 1]");
+		return f;
+	}
+
+	// MIN: taxa minima, em [0, taxa inicial]
+	private static double minimo(String valor, double taxaInicial, String descricao){
+		double min = Double.parseDouble(valor);
+		if(!(min >= 0 && min <= taxaInicial))
+			throw new IllegalArgumentException("Agenda de aprendizado " + descricao + ": a taxa minima " + valor + " deve estar em [0, " + taxaInicial + "]");
+		return min;
+	}
+
+
+	//************* Agendas disponiveis *********************//
+
+	static class Constante extends AgendaAprendizado {
+
+		Constante(double taxaInicial){
+			super(taxaInicial);
+		}
+
+		public double taxa(int epoca){
+			return taxaInicial;
+		}
+	}
+
+	static class Degrau extends AgendaAprendizado {
+
+		int passo;
+		double fator;
+
+		Degrau(double taxaInicial, int passo, double fator){
+			super(taxaInicial);
+			this.passo = passo;
+			this.fator = fator;
+		}
+
+		public double taxa(int epoca){
+			return taxaInicial*Math.pow(fator, (epoca - 1)/passo);
+		}
+	}
+
+	static class Exponencial extends AgendaAprendizado {
+
+		double fator;
+
+		Exponencial(double taxaInicial, double fator){
+			super(taxaInicial);
+			this.fator = fator;
+		}
+
+		public double taxa(int epoca){
+			return taxaInicial*Math.pow(fator, epoca - 1);
+		}
+	}
+
+	// Depois das N epocas, a taxa permanece no minimo
+	static class Cosseno extends AgendaAprendizado {
+
+		int epocas;
+		double minimo;
+
+		Cosseno(double taxaInicial, int epocas, double minimo){
+			super(taxaInicial);
+			this.epocas = epocas;
+			this.minimo = minimo;
+		}
+
+		public double taxa(int epoca){
+			double progresso = Math.min(epoca - 1, epocas)/(double)epocas;
+			return minimo + (taxaInicial - minimo)*(1 + Math.cos(Math.PI*progresso))/2;
+		}
+	}
+
+	static class Plato extends AgendaAprendizado {
+
+		int paciencia;
+		double fator, minimo;
+
+		double taxaAtual;
+		double melhorErro = Double.MAX_VALUE;
+		int semMelhora; // validacoes seguidas sem melhora desde a ultima reducao
+
+		Plato(double taxaInicial, int paciencia, double fator, double minimo){
+			super(taxaInicial);
+			this.paciencia = paciencia;
+			this.fator = fator;
+			this.minimo = minimo;
+			this.taxaAtual = taxaInicial;
+		}
+
+		public double taxa(int epoca){
+			return taxaAtual;
+		}
+
+		public void validacao(int epoca, double erro){
+			if(erro < melhorErro){
+				melhorErro = erro;
+				semMelhora = 0;
+				return;
+			}
+
+			semMelhora++;
+			if(semMelhora >= paciencia){
+				taxaAtual = Math.max(minimo, taxaAtual*fator);
+				semMelhora = 0;
+			}
+		}
+
+		public double[] estado(){
+			return new double[]{ taxaAtual, melhorErro, semMelhora };
+		}
+
+		public void restaura(double[] estado){
+			taxaAtual = estado[0];
+			melhorErro = estado[1];
+			semMelhora = (int)estado[2];
+		}
+	}
+
+	// As epocas da agenda seguinte sao contadas a partir do fim do aquecimento
+	static class Aquecimento extends AgendaAprendizado {
+
+		int epocas;
+		AgendaAprendizado seguinte;
+
+		Aquecimento(double taxaInicial, int epocas, AgendaAprendizado seguinte){
+			super(taxaInicial);
+			this.epocas = epocas;
+			this.seguinte = seguinte;
+		}
+
+		public double taxa(int epoca){
+			if(epoca <= epocas)
+				return taxaInicial*epoca/epocas;
+			return seguinte.taxa(epoca - epocas);
+		}
+
+		public void validacao(int epoca, double erro){
+			if(epoca > epocas)
+				seguinte.validacao(epoca - epocas, erro);
+		}
+
+		public double[] estado(){
+			return seguinte.estado();
+		}
+
+		public void restaura(double[] estado){
+			seguinte.restaura(estado);
+		}
+
+		public int epocasAquecimento(){
+			return epocas;
+		}
+	}
+
+}
@@ -0,0 +1,212 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class LeitorCSV {
+
+	/*
+	 * Leitor de arquivos CSV numericos.
+	 * O arquivo e lido em blocos grandes por um FileChannel e os numeros sao interpretados diretamente
+	 * a partir dos bytes, sem criar uma String por linha nem por campo. Os valores sao gravados linha
+	 * apos linha em um unico array de double, que cresce por duplicacao, de modo que a leitura e linear
+	 * no tamanho do arquivo.
+	 *
+	 * Numeros cujos digitos formam um inteiro menor que 2^53 e com ate 22 casas decimais (como os inteiros do optdigits e
+	 * a maioria dos valores normalizados) sao montados como um inteiro e divididos uma unica vez por uma
+	 * potencia de 10 exata, o que da exatamente o mesmo double que Double.parseDouble. Os demais (mais
+	 * digitos, expoente, NaN, etc.) sao entregues ao Double.parseDouble.
+	 *
+	 * Espacos em volta dos valores, linhas vazias e virgulas no fim da linha sao ignorados; campos que nao
+	 * sao numeros lancam NumberFormatException, como no Double.parseDouble, com a linha do arquivo na mensagem.
+	 */
+
+	private static final int TAMANHO_BUFFER = 1 << 20;
+	private static final long LIMITE_MANTISSA = 1L << 53; // inteiros ate este valor sao exatos em double
+	private static final double[] POTENCIAS_10 = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+		1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	// resultado da leitura
+	private double[] valores = new double[1024];
+	private int total; // quantidade de valores lidos
+	private int linhas;
+	private int colunas;
+
+	// estado do campo sendo lido
+	private long mantissa;
+	private int digitos; // digitos significativos da mantissa
+	private int casasDecimais;
+	private boolean negativo, ponto, temDigito, lento;
+	private char[] texto = new char[32]; // caracteres do campo, para o Double.parseDouble
+	private int tamanhoTexto;
+
+	// estado da linha sendo lida
+	private int colunaAtual;
+	private int linhaArquivo = 1; // linha do arquivo, contando o cabecalho e as linhas vazias, para as mensagens de erro
+	private boolean pulaLinha; // descarta a linha atual (cabecalho)
+
+
+	private LeitorCSV(boolean cabecalho){
+		this.pulaLinha = cabecalho;
+	}
+
+	// Le o arquivo inteiro
+	public static LeitorCSV le(String caminho) throws IOException {
+		return le(caminho, false);
+	}
+
+	// Le o arquivo inteiro; se "cabecalho" for verdadeiro, a primeira linha e descartada
+	public static LeitorCSV le(String caminho, boolean cabecalho) throws IOException {
+		LeitorCSV leitor = new LeitorCSV(cabecalho);
+		FileChannel canal = FileChannel.open(Paths.get(caminho), StandardOpenOption.READ);
+		try {
+			// estimativa inicial: cada valor ocupa ao menos dois bytes (um digito e um separador)
+			leitor.valores = new double[(int)Math.max(1024, Math.min(canal.size()/2, Integer.MAX_VALUE - 8))];
+
+			ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_BUFFER);
+			byte[] bytes = buffer.array();
+			while(canal.read(buffer) > 0){
+				int n = buffer.position();
+				for(int i = 0; i < n; i++)
+					leitor.processa(bytes[i]);
+				buffer.clear();
+			}
+		} finally {
+			canal.close();
+		}
+
+		leitor.fimLinha();
+		leitor.valores = Arrays.copyOf(leitor.valores, leitor.total);
+		return leitor;
+	}
+
+	public int linhas(){
+		return linhas;
+	}
+
+	public int colunas(){
+		return colunas;
+	}
+
+	// todos os valores lidos, linha apos linha: o valor j da linha i esta em valores()[i*colunas() + j]
+	public double[] valores(){
+		return valores;
+	}
+
+	// copia os valores lidos para uma matriz com uma linha por linha do arquivo
+	public double[][] matriz(){
+		double[][] matriz = new double[linhas][colunas];
+		for(int i = 0; i < linhas; i++)
+			System.arraycopy(valores, i*colunas, matriz[i], 0, colunas);
+		return matriz;
+	}
+
+
+	//************* Interpretacao dos bytes *********************//
+
+	private void processa(byte b) throws IOException {
+		if(pulaLinha){
+			if(b == '\n'){
+				pulaLinha = false;
+				linhaArquivo++;
+			}
+			return;
+		}
+
+		if(b >= '0' && b <= '9'){
+			if(digitos < 18){
+				mantissa = mantissa*10 + (b - '0');
+				if(mantissa != 0)
+					digitos++; // zeros a esquerda nao contam
+			}
+			else
+				lento = true;
+			if(ponto)
+				casasDecimais++;
+			temDigito = true;
+			guarda(b);
+		}
+		else if(b == ','){
+			fimCampo();
+		}
+		else if(b == '\n'){
+			fimLinha();
+			linhaArquivo++;
+		}
+		else if(b == '\r'){
+			// fim de linha do Windows
+		}
+		else if(b == ' ' || b == '\t'){
+			// espacos em volta do valor sao ignorados; no meio dele, o Double.parseDouble recusa o campo
+			if(tamanhoTexto > 0){
+				lento = true;
+				guarda(b);
+			}
+		}
+		else {
+			if(b == '.' && !ponto)
+				ponto = true;
+			else if(b == '-' && tamanhoTexto == 0)
+				negativo = true;
+			else if(!(b == '+' && tamanhoTexto == 0))
+				lento = true; // expoente, NaN, Infinity ou texto invalido
+			guarda(b);
+		}
+	}
+
+	// guarda o caractere do campo, caso ele precise ser lido pelo Double.parseDouble
+	private void guarda(byte b){
+		if(tamanhoTexto == texto.length)
+			texto = Arrays.copyOf(texto, texto.length*2);
+		texto[tamanhoTexto++] = (char)(b & 0xFF);
+	}
+
+	private void fimCampo(){
+		double valor;
+		if(!lento && temDigito && mantissa < LIMITE_MANTISSA && casasDecimais < POTENCIAS_10.length){
+			// caminho rapido: inteiro exato dividido por uma potencia de 10 exata
+			valor = (casasDecimais == 0) ? mantissa : mantissa/POTENCIAS_10[casasDecimais];
+			if(negativo)
+				valor = -valor;
+		}
+		else {
+			try {
+				valor = Double.parseDouble(new String(texto, 0, tamanhoTexto));
+			} catch (NumberFormatException e) { // inclusive campo vazio
+				throw new NumberFormatException("Linha " + linhaArquivo + ", coluna " + (colunaAtual + 1) + ": " + e.getMessage());
+			}
+		}
+
+		if(total == valores.length)
+			valores = Arrays.copyOf(valores, valores.length*2);
+		valores[total++] = valor;
+		colunaAtual++;
+
+		mantissa = 0;
+		digitos = 0;
+		casasDecimais = 0;
+		negativo = ponto = temDigito = lento = false;
+		tamanhoTexto = 0;
+	}
+
+	private void fimLinha() throws IOException {
+		// o ultimo campo so e gravado se nao estiver vazio, o que ignora linhas vazias e virgulas no fim da linha
+		if(tamanhoTexto > 0)
+			fimCampo();
+		if(colunaAtual == 0)
+			return;
+
+		if(linhas == 0)
+			colunas = colunaAtual;
+		else if(colunaAtual != colunas)
+			throw new IOException("Linha " + linhaArquivo + " com " + colunaAtual + " colunas; esperadas " + colunas);
+
+		linhas++;
+		colunaAtual = 0;
+	}
+
+}